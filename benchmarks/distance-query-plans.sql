@@ -0,0 +1,99 @@
+-- Porównanie planów i czasów zapytań odległościowych z CampaignRepository:
+--   * "legacy"  - radians()/sin()/cos() liczone dla każdego wiersza, brak predykatu indeksowalnego
+--   * "bbox"    - prekomputowane kolumny trygonometryczne + prostokąt ograniczający na (latitude, longitude)
+--
+-- Uruchamiane przez run-distance-benchmark.sh; rozmiar danych przekazywany jako -v campaigns=N.
+-- Wszystko dzieje się w osobnym schemacie "distance_bench", więc nie dotyka danych aplikacji.
+
+\set ON_ERROR_STOP on
+\timing off
+
+DROP SCHEMA IF EXISTS distance_bench CASCADE;
+CREATE SCHEMA distance_bench;
+SET search_path = distance_bench;
+
+CREATE TABLE city (
+    id            bigserial PRIMARY KEY,
+    name          varchar(255) NOT NULL UNIQUE,
+    latitude      double precision NOT NULL,
+    longitude     double precision NOT NULL,
+    latitude_rad  double precision NOT NULL,
+    longitude_rad double precision NOT NULL,
+    sin_latitude  double precision NOT NULL,
+    cos_latitude  double precision NOT NULL
+);
+CREATE INDEX idx_city_latitude_longitude ON city (latitude, longitude);
+
+CREATE TABLE campaign (
+    id      bigserial PRIMARY KEY,
+    name    varchar(255) NOT NULL UNIQUE,
+    price   double precision NOT NULL,
+    fund    double precision NOT NULL,
+    status  boolean NOT NULL,
+    city_id bigint NOT NULL REFERENCES city (id)
+);
+CREATE INDEX idx_campaign_city_id ON campaign (city_id);
+
+-- 2000 miejscowości rozsianych po obszarze Polski.
+INSERT INTO city (name, latitude, longitude, latitude_rad, longitude_rad, sin_latitude, cos_latitude)
+SELECT 'city-' || g, lat, lon, radians(lat), radians(lon), sin(radians(lat)), cos(radians(lat))
+FROM (
+    SELECT g, 49.0 + random() * 5.8 AS lat, 14.1 + random() * 10.0 AS lon
+    FROM generate_series(1, 2000) AS g
+) c;
+
+INSERT INTO campaign (name, price, fund, status, city_id)
+SELECT 'campaign-' || g, 1.0, 100.0, random() < 0.8, 1 + floor(random() * 2000)::bigint
+FROM generate_series(1, :campaigns) AS g;
+
+ANALYZE city;
+ANALYZE campaign;
+
+-- Punkt wyszukiwania: Warszawa, promień 50 km.
+\set searchLat 52.2297
+\set searchLon 21.0122
+\set searchRadius 50
+-- Wartości liczone po stronie aplikacji (GeoMath.boundingBox, Math.sin/Math.cos).
+\set searchSinLat 0.7904726
+\set searchCosLat 0.6124974
+\set searchLonRad 0.3667321
+\set minLat 51.7800392
+\set maxLat 52.6793608
+\set minLon 20.2780442
+\set maxLon 21.7463558
+
+\echo ==== legacy :campaigns
+EXPLAIN (ANALYZE, BUFFERS, TIMING)
+SELECT c.*
+FROM campaign c
+JOIN city target_city ON c.city_id = target_city.id
+WHERE c.status = true
+AND (
+    6371 * acos(
+        LEAST(1.0, GREATEST(-1.0,
+            cos(radians(:searchLat)) * cos(radians(target_city.latitude)) *
+            cos(radians(target_city.longitude - :searchLon)) +
+            sin(radians(:searchLat)) * sin(radians(target_city.latitude))
+        ))
+    )
+) <= :searchRadius;
+
+\echo ==== bbox :campaigns
+EXPLAIN (ANALYZE, BUFFERS, TIMING)
+SELECT c.*
+FROM campaign c
+JOIN city target_city ON c.city_id = target_city.id
+WHERE c.status = true
+AND target_city.latitude BETWEEN :minLat AND :maxLat
+AND target_city.longitude BETWEEN :minLon AND :maxLon
+AND (
+    6371 * acos(
+        LEAST(1.0, GREATEST(-1.0,
+            :searchCosLat * target_city.cos_latitude *
+            cos(target_city.longitude_rad - :searchLonRad) +
+            :searchSinLat * target_city.sin_latitude
+        ))
+    )
+) <= :searchRadius;
+
+DROP SCHEMA distance_bench CASCADE;
@@ -0,0 +1,15 @@
+#!/usr/bin/env bash
+# Porównuje plany wykonania i czasy starego oraz nowego zapytania odległościowego
+# dla 1k, 100k i 1M kampanii. Wymaga psql i działającego PostgreSQL.
+#
+#   PGHOST=localhost PGUSER=postgres PGPASSWORD=123 ./benchmarks/run-distance-benchmark.sh campaign_db
+set -euo pipefail
+
+DATABASE="${1:-campaign_db}"
+SCRIPT_DIR="$(cd "$(dirname "$0")" && pwd)"
+
+for campaigns in 1000 100000 1000000; do
+    echo "################ ${campaigns} campaigns"
+    psql -X -q -d "$DATABASE" -v campaigns="$campaigns" -f "$SCRIPT_DIR/distance-query-plans.sql" \
+        | grep -E '^(====|.*(Scan|Join|Execution Time|Planning Time|Rows Removed))'
+done
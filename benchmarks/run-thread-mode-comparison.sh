@@ -0,0 +1,49 @@
+#!/usr/bin/env bash
+# Porównuje przepustowość i p99 aplikacji na wątkach platformowych (domyślny Tomcat) oraz
+# w trybie wirtualnych wątków z bramką DB (profil virtual-threads). Dla każdego trybu uruchamia
+# zbudowany jar, odpala generator obciążenia (./gradlew loadTest) i zapisuje raport JSON.
+# Wymaga działającego PostgreSQL (jak w application.properties), zbudowanego jara i jq.
+#
+#   ./gradlew bootJar && ./benchmarks/run-thread-mode-comparison.sh 2000 60
+set -euo pipefail
+
+CONCURRENCY="${1:-2000}"
+DURATION="${2:-60}"
+MIX="${MIX:-search:70,keywords:20,create:5,update:5}"
+PORT="${PORT:-8080}"
+ROOT_DIR="$(cd "$(dirname "$0")/.." && pwd)"
+JAR="$(ls "$ROOT_DIR"/build/libs/demo-*-SNAPSHOT.jar | grep -v plain | head -1)"
+RESULTS_DIR="$ROOT_DIR/build/load"
+mkdir -p "$RESULTS_DIR"
+
+run_mode() {
+    local mode="$1" profiles="$2"
+    echo "################ ${mode} (profiles: ${profiles:-default})"
+    java -jar "$JAR" --server.port="$PORT" ${profiles:+--spring.profiles.active=$profiles} \
+        > "$RESULTS_DIR/$mode-app.log" 2>&1 &
+    local app_pid=$!
+    trap "kill $app_pid 2>/dev/null || true" EXIT
+
+    until curl -sf "http://localhost:$PORT/home" > /dev/null; do
+        kill -0 "$app_pid" 2>/dev/null || { echo "Application failed to start, see $RESULTS_DIR/$mode-app.log"; exit 1; }
+        sleep 1
+    done
+
+    "$ROOT_DIR/gradlew" -q -p "$ROOT_DIR" loadTest -PloadArgs="--base-url=http://localhost:$PORT \
+        --concurrency=$CONCURRENCY --duration=$DURATION --mix=$MIX --report=$RESULTS_DIR/$mode.json"
+
+    kill "$app_pid"
+    wait "$app_pid" 2>/dev/null || true
+    trap - EXIT
+}
+
+run_mode platform ""
+run_mode virtual "virtual-threads"
+
+echo
+printf '%-10s %12s %10s %14s %14s\n' mode "req/s" errors "search p99 ms" "create p99 ms"
+for mode in platform virtual; do
+    jq -r --arg mode "$mode" \
+        '[$mode, (.throughput | floor), .errors, (.operations.search.p99Ms // 0), (.operations.create.p99Ms // 0)] | @tsv' \
+        "$RESULTS_DIR/$mode.json" | awk -F'\t' '{ printf "%-10s %12s %10s %14.2f %14.2f\n", $1, $2, $3, $4, $5 }'
+done
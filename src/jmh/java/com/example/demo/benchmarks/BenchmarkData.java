@@ -0,0 +1,93 @@
+package com.example.demo.benchmarks;
+
+import com.example.demo.MandatoryDemoApplication;
+import com.example.demo.entities.Campaign;
+import com.example.demo.entities.City;
+import com.example.demo.entities.Keyword;
+import com.example.demo.entities.Seller;
+import com.example.demo.repositories.CampaignRepository;
+import com.example.demo.repositories.KeywordRepository;
+import com.example.demo.repositories.SellerRepository;
+import com.example.demo.search.ActiveCampaignIndex;
+import com.example.demo.search.KeywordSuggestionIndex;
+import com.example.demo.services.CityCatalog;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Boots the application against an in-memory H2 database and seeds it with a given number of
+ * campaigns. Seeding is deterministic so results of different runs are comparable.
+ */
+final class BenchmarkData {
+
+    static final String SELLER = "benchmark-seller";
+    private static final int SAVE_BATCH = 1_000;
+    private static final int KEYWORDS_PER_CAMPAIGN = 3;
+
+    private BenchmarkData() {
+    }
+
+    static ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(MandatoryDemoApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:jmh;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "spring.datasource.driverClassName=org.h2.Driver",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN")
+                .run();
+    }
+
+    /**
+     * Inserts {@code campaignCount} campaigns spread over the seeded cities and keywords (roughly
+     * 80% active) and rebuilds the in-memory indexes, which only load on startup.
+     */
+    static void seed(ConfigurableApplicationContext context, int campaignCount) {
+        SellerRepository sellerRepository = context.getBean(SellerRepository.class);
+        CampaignRepository campaignRepository = context.getBean(CampaignRepository.class);
+        List<City> cities = context.getBean(CityCatalog.class).cities();
+        List<Keyword> keywords = context.getBean(KeywordRepository.class).findAll();
+
+        Seller seller = new Seller();
+        seller.setUsername(SELLER);
+        seller.setEmail(SELLER + "@example.com");
+        seller.setPassword("secret");
+        seller.setBalance(1_000_000_000.0);
+        seller = sellerRepository.save(seller);
+
+        Random random = new Random(42);
+        List<Campaign> batch = new ArrayList<>(SAVE_BATCH);
+        for (int i = 0; i < campaignCount; i++) {
+            Set<Keyword> campaignKeywords = new HashSet<>();
+            while (campaignKeywords.size() < KEYWORDS_PER_CAMPAIGN) {
+                campaignKeywords.add(keywords.get(random.nextInt(keywords.size())));
+            }
+            batch.add(Campaign.builder()
+                    .name("benchmark-" + i)
+                    .keywords(campaignKeywords)
+                    .price(1 + random.nextInt(10))
+                    .fund(100 + random.nextInt(10_000))
+                    .status(random.nextInt(5) != 0)
+                    .city(cities.get(random.nextInt(cities.size())))
+                    .seller(seller)
+                    .build());
+            if (batch.size() == SAVE_BATCH) {
+                campaignRepository.saveAll(batch);
+                batch.clear();
+            }
+        }
+        campaignRepository.saveAll(batch);
+
+        context.getBean(ActiveCampaignIndex.class).rebuild();
+        context.getBean(KeywordSuggestionIndex.class).rebuild();
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.demo.benchmarks;
+
+import com.example.demo.dtos.CampaignDTO;
+import com.example.demo.entities.Keyword;
+import com.example.demo.repositories.CampaignRepository;
+import com.example.demo.services.CampaignService;
+import com.example.demo.services.KeywordService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service level hot paths against H2, with the database seeded once per trial. The location
+ * searches go through the in-memory index; the {@code *Sql} variants call the native fallback
+ * queries used while the index is still loading.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CampaignServiceBenchmark {
+
+    private static final String SEARCH_CITY = "Warszawa";
+    private static final double SEARCH_LATITUDE = 52.2297;
+    private static final double SEARCH_LONGITUDE = 21.0122;
+    private static final double SEARCH_RADIUS_KM = 150;
+    private static final List<String> SEARCH_KEYWORDS = List.of("elektronika", "moda", "sport");
+
+    @Param({"1000", "10000", "100000"})
+    private int campaignCount;
+
+    private ConfigurableApplicationContext context;
+    private CampaignService campaignService;
+    private KeywordService keywordService;
+    private CampaignRepository campaignRepository;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkData.start();
+        BenchmarkData.seed(context, campaignCount);
+        campaignService = context.getBean(CampaignService.class);
+        keywordService = context.getBean(KeywordService.class);
+        campaignRepository = context.getBean(CampaignRepository.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Set<Keyword> findKeywordsByNames() {
+        return keywordService.findKeywordsByNames(SEARCH_KEYWORDS);
+    }
+
+    @Benchmark
+    public List<CampaignDTO> searchByLocation() {
+        return campaignService.findActiveCampaignsNearSearchLocation(SEARCH_CITY, SEARCH_RADIUS_KM);
+    }
+
+    @Benchmark
+    public List<CampaignDTO> searchByLocationAndKeywords() {
+        return campaignService.findActiveCampaignsNearSearchLocationByKeywords(
+                SEARCH_CITY, SEARCH_RADIUS_KM, SEARCH_KEYWORDS);
+    }
+
+    @Benchmark
+    public List<Long> searchByLocationSql() {
+        return campaignRepository.findActiveCampaignIdsNearSearchLocation(
+                SEARCH_LATITUDE, SEARCH_LONGITUDE, SEARCH_RADIUS_KM);
+    }
+
+    @Benchmark
+    public List<Long> searchByLocationAndKeywordsSql() {
+        return campaignRepository.findActiveCampaignIdsNearSearchLocationByKeywords(
+                SEARCH_LATITUDE, SEARCH_LONGITUDE, SEARCH_RADIUS_KM, SEARCH_KEYWORDS);
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.demo.benchmarks;
+
+import com.example.demo.dtos.CampaignDTO;
+import com.example.demo.dtos.SellerDTO;
+import com.example.demo.entities.Campaign;
+import com.example.demo.entities.City;
+import com.example.demo.entities.Keyword;
+import com.example.demo.entities.Seller;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to DTO mapping on detached, fully initialized entities - isolates the mapping cost from
+ * any database access.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DtoMappingBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    private int campaignCount;
+
+    @Param({"3", "10"})
+    private int keywordsPerCampaign;
+
+    private List<Campaign> campaigns;
+    private Seller seller;
+
+    @Setup
+    public void setUp() {
+        City city = new City("Warszawa", 52.2297, 21.0122);
+        seller = new Seller();
+        seller.setId(1L);
+        seller.setUsername(BenchmarkData.SELLER);
+        seller.setEmail(BenchmarkData.SELLER + "@example.com");
+
+        List<Keyword> keywords = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            Keyword keyword = new Keyword("keyword-" + i);
+            keyword.setId((long) i);
+            keywords.add(keyword);
+        }
+
+        campaigns = new ArrayList<>(campaignCount);
+        for (int i = 0; i < campaignCount; i++) {
+            Set<Keyword> campaignKeywords = new HashSet<>();
+            for (int k = 0; k < keywordsPerCampaign; k++) {
+                campaignKeywords.add(keywords.get((i + k) % keywords.size()));
+            }
+            campaigns.add(Campaign.builder()
+                    .id((long) i)
+                    .name("benchmark-" + i)
+                    .keywords(campaignKeywords)
+                    .price(1)
+                    .fund(100)
+                    .status(true)
+                    .city(city)
+                    .seller(seller)
+                    .build());
+        }
+        seller.setCampaigns(campaigns);
+    }
+
+    @Benchmark
+    public List<CampaignDTO> campaignFromEntity() {
+        List<CampaignDTO> dtos = new ArrayList<>(campaigns.size());
+        for (Campaign campaign : campaigns) {
+            dtos.add(CampaignDTO.fromEntity(campaign));
+        }
+        return dtos;
+    }
+
+    @Benchmark
+    public SellerDTO sellerFromEntity() {
+        return SellerDTO.fromEntity(seller);
+    }
+}
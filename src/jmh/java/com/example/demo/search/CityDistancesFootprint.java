@@ -0,0 +1,89 @@
+package com.example.demo.search;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Produces one row of {@code benchmarks/city-distance-matrix-footprint.md}: builds
+ * {@link CityDistances} for synthetic cities spread evenly over Poland and prints the build time,
+ * array sizes, retained heap and the average 50 km query time, checking 200 queries against
+ * {@link GeoMath#distanceKm}. Not a JMH benchmark - it lives here only because this source set
+ * sees the package-private class.
+ * <p>
+ * {@code ./gradlew jmhClasses}, then
+ * {@code java -Xmx2g -cp build/classes/java/main:build/classes/java/jmh com.example.demo.search.CityDistancesFootprint 10000 256 true}
+ */
+public final class CityDistancesFootprint {
+
+    private static final double RADIUS_KM = 50;
+    private static final int CHECKED_QUERIES = 200;
+    private static final int WARMUP_QUERIES = 20_000;
+    private static final int TIMED_QUERIES = 200_000;
+
+    private CityDistancesFootprint() {
+    }
+
+    public static void main(String[] args) {
+        int cities = Integer.parseInt(args[0]);
+        int maxNeighbors = Integer.parseInt(args[1]);
+        boolean matrix = Boolean.parseBoolean(args[2]);
+
+        Random random = new Random(7);
+        long[] ids = new long[cities];
+        double[] latitudes = new double[cities];
+        double[] longitudes = new double[cities];
+        for (int i = 0; i < cities; i++) {
+            ids[i] = i + 1;
+            latitudes[i] = 49.0 + random.nextDouble() * 5.85;
+            longitudes[i] = 14.1 + random.nextDouble() * 10.05;
+        }
+
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long heapBefore = runtime.totalMemory() - runtime.freeMemory();
+        long started = System.nanoTime();
+        CityDistances distances = CityDistances.build(ids, latitudes, longitudes, maxNeighbors, matrix ? cities : 0);
+        long buildMillis = (System.nanoTime() - started) / 1_000_000;
+        System.gc();
+        long heap = runtime.totalMemory() - runtime.freeMemory() - heapBefore;
+
+        int[] centers = new int[CHECKED_QUERIES];
+        long found = 0;
+        boolean matches = true;
+        for (int q = 0; q < CHECKED_QUERIES; q++) {
+            int center = random.nextInt(cities);
+            centers[q] = center;
+            Set<Long> actual = new HashSet<>();
+            distances.forEachWithin(ids[center], RADIUS_KM, (cityId, distanceKm) -> actual.add(cityId));
+            Set<Long> expected = new HashSet<>();
+            for (int j = 0; j < cities; j++) {
+                double km = GeoMath.distanceKm(latitudes[center], longitudes[center], latitudes[j], longitudes[j]);
+                if (Math.abs(km - RADIUS_KM) < 1e-3) {
+                    // On the circle within float precision: either answer is right.
+                    actual.remove(ids[j]);
+                } else if (km <= RADIUS_KM) {
+                    expected.add(ids[j]);
+                }
+            }
+            matches &= actual.equals(expected);
+            found += expected.size();
+        }
+
+        long[] sink = new long[1];
+        for (int q = 0; q < WARMUP_QUERIES; q++) {
+            distances.forEachWithin(ids[centers[q % CHECKED_QUERIES]], RADIUS_KM, (cityId, distanceKm) -> sink[0] += cityId);
+        }
+        started = System.nanoTime();
+        for (int q = 0; q < TIMED_QUERIES; q++) {
+            distances.forEachWithin(ids[centers[q % CHECKED_QUERIES]], RADIUS_KM, (cityId, distanceKm) -> sink[0] += cityId);
+        }
+        double queryMicros = (System.nanoTime() - started) / 1_000.0 / TIMED_QUERIES;
+
+        System.out.printf("cities=%d maxNeighbors=%d matrix=%s cores=%d build=%d ms matrix=%d KiB neighbors=%d KiB "
+                        + "lookup=%d KiB heap=%d KiB query=%.2f us avgFound=%.0f matchesGeoMath=%s (%d)%n",
+                cities, maxNeighbors, matrix, runtime.availableProcessors(), buildMillis,
+                distances.matrixBytes() / 1024, distances.neighborListBytes() / 1024, distances.lookupBytes() / 1024,
+                heap / 1024, queryMicros, found / (double) CHECKED_QUERIES, matches, sink[0] & 1);
+    }
+}
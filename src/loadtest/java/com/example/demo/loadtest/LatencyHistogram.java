@@ -0,0 +1,57 @@
+package com.example.demo.loadtest;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * Lock-free latency histogram with geometric buckets 1% wide, from 1 microsecond up to roughly
+ * 4 minutes. Reported percentiles are the upper bound of the bucket, so they are accurate to 1%.
+ */
+final class LatencyHistogram {
+
+    private static final double BUCKET_GROWTH = 1.01;
+    private static final double LOG_GROWTH = Math.log(BUCKET_GROWTH);
+    private static final int BUCKETS = 2_000;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAccumulator maxMicros = new LongAccumulator(Math::max, 0);
+
+    void record(long nanos) {
+        long micros = Math.max(1, nanos / 1_000);
+        int bucket = (int) Math.min(BUCKETS - 1, Math.ceil(Math.log(micros) / LOG_GROWTH));
+        counts.incrementAndGet(bucket);
+        maxMicros.accumulate(micros);
+    }
+
+    long count() {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     * @return latency in milliseconds, or 0 when nothing was recorded
+     */
+    double percentileMillis(double percentile) {
+        long total = count();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(total * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= Math.max(rank, 1)) {
+                return Math.min(Math.pow(BUCKET_GROWTH, i), maxMicros.get()) / 1_000.0;
+            }
+        }
+        return maxMicros.get() / 1_000.0;
+    }
+
+    double maxMillis() {
+        return maxMicros.get() / 1_000.0;
+    }
+}
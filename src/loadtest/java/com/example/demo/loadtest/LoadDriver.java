@@ -0,0 +1,361 @@
+package com.example.demo.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop HTTP load driver: {@code concurrency} virtual threads each send requests back to back
+ * for the configured duration, picking search, keyword search, create and update calls according to
+ * the traffic mix, and the driver prints throughput and latency percentiles per operation.
+ * <p>
+ * Options are passed as {@code --name=value}:
+ * <pre>
+ * --base-url=http://localhost:8080   --concurrency=200   --duration=60   --warmup=10  (seconds)
+ * --mix=search:60,keywords:20,create:10,update:10
+ * --radius=50   --keywords=elektronika,moda,sport
+ * --username=...  --password=...    (a fresh seller is registered when omitted)
+ * --report=build/load/result.json    (optional machine-readable summary)
+ * </pre>
+ * Run with {@code ./gradlew loadTest -PloadArgs="--concurrency=500 --duration=120"}.
+ */
+public final class LoadDriver {
+
+    enum Operation { SEARCH, KEYWORDS, CREATE, UPDATE }
+
+    private record OwnedCampaign(long id, String name, String city) {
+    }
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final String baseUrl;
+    private final int concurrency;
+    private final Duration duration;
+    private final Duration warmup;
+    private final double radius;
+    private final List<String> keywords;
+    private final Operation[] schedule;
+    private final HttpClient client;
+    private final String reportFile;
+
+    private final Map<Operation, LatencyHistogram> latencies = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+    private final Map<Integer, LongAdder> statusCounts = new ConcurrentHashMap<>();
+    private final List<OwnedCampaign> ownedCampaigns = new ArrayList<>();
+    private final AtomicLong campaignSequence = new AtomicLong();
+
+    private final String authorization;
+    private List<String> cities;
+    private volatile boolean recording;
+
+    private LoadDriver(Map<String, String> options) {
+        baseUrl = options.getOrDefault("base-url", "http://localhost:8080");
+        concurrency = Integer.parseInt(options.getOrDefault("concurrency", "200"));
+        duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "60")));
+        warmup = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "10")));
+        radius = Double.parseDouble(options.getOrDefault("radius", "50"));
+        keywords = List.of(options.getOrDefault("keywords", "elektronika,moda,sport").split(","));
+        reportFile = options.get("report");
+        schedule = parseMix(options.getOrDefault("mix", "search:60,keywords:20,create:10,update:10"));
+        client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .cookieHandler(new CookieManager())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new LatencyHistogram());
+            errors.put(operation, new LongAdder());
+        }
+
+        String username = options.get("username");
+        String password = options.get("password");
+        if (username == null) {
+            username = "load-" + Long.toString(System.currentTimeMillis(), 36);
+            password = "password";
+            register(username, password);
+        }
+        authorization = "Basic " + Base64.getEncoder()
+                .encodeToString((username + ":" + password).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+            }
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        new LoadDriver(options).run();
+    }
+
+    private void run() throws Exception {
+        cities = loadCities();
+        System.out.printf("Driving %s with %d virtual threads for %ds (+%ds warmup), %d cities%n",
+                baseUrl, concurrency, duration.toSeconds(), warmup.toSeconds(), cities.size());
+
+        long warmupEnd = System.nanoTime() + warmup.toNanos();
+        long end = warmupEnd + duration.toNanos();
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                workers.submit(() -> {
+                    while (System.nanoTime() < end) {
+                        Operation operation = schedule[ThreadLocalRandom.current().nextInt(schedule.length)];
+                        execute(operation);
+                    }
+                    return null;
+                });
+            }
+            Thread.sleep(warmup);
+            recording = true;
+        }
+        Duration measured = Duration.ofNanos(System.nanoTime() - warmupEnd);
+        report(measured);
+        if (reportFile != null) {
+            writeReport(measured);
+        }
+    }
+
+    private void execute(Operation operation) {
+        long started = System.nanoTime();
+        boolean ok;
+        try {
+            ok = switch (operation) {
+                case SEARCH -> search();
+                case KEYWORDS -> searchByKeywords();
+                case CREATE -> create();
+                case UPDATE -> update();
+            };
+        } catch (Exception e) {
+            ok = false;
+        }
+        if (recording) {
+            latencies.get(operation).record(System.nanoTime() - started);
+            if (!ok) {
+                errors.get(operation).increment();
+            }
+        }
+    }
+
+    private boolean search() throws Exception {
+        return send(get("/campaigns/search-by-location?searchCityName=" + encode(randomCity())
+                + "&searchRadius=" + radius)).statusCode() == 200;
+    }
+
+    private boolean searchByKeywords() throws Exception {
+        StringBuilder uri = new StringBuilder("/campaigns/search-by-location-and-keywords?searchCityName=")
+                .append(encode(randomCity())).append("&searchRadius=").append(radius);
+        for (String keyword : randomKeywords()) {
+            uri.append("&keywords=").append(encode(keyword));
+        }
+        return send(get(uri.toString())).statusCode() == 200;
+    }
+
+    private boolean create() throws Exception {
+        String name = "load-" + Long.toString(System.currentTimeMillis(), 36) + "-" + campaignSequence.incrementAndGet();
+        String city = randomCity();
+        HttpResponse<String> response = send(request("/campaigns")
+                .POST(HttpRequest.BodyPublishers.ofString(campaignBody(name, city, 10)))
+                .build());
+        if (response.statusCode() != 201 && response.statusCode() != 200) {
+            return false;
+        }
+        long id = JSON.readTree(response.body()).get("id").asLong();
+        synchronized (ownedCampaigns) {
+            ownedCampaigns.add(new OwnedCampaign(id, name, city));
+        }
+        return true;
+    }
+
+    private boolean update() throws Exception {
+        OwnedCampaign campaign;
+        synchronized (ownedCampaigns) {
+            if (ownedCampaigns.isEmpty()) {
+                return create();
+            }
+            campaign = ownedCampaigns.get(ThreadLocalRandom.current().nextInt(ownedCampaigns.size()));
+        }
+        double fund = 5 + ThreadLocalRandom.current().nextInt(20);
+        return send(request("/campaigns/" + campaign.id())
+                .method("PATCH", HttpRequest.BodyPublishers.ofString(campaignBody(campaign.name(), campaign.city(), fund)))
+                .build()).statusCode() == 200;
+    }
+
+    private void register(String username, String password) {
+        Map<String, Object> body = Map.of(
+                "username", username,
+                "email", username + "@example.com",
+                "password", password,
+                "balance", 1_000_000_000.0);
+        try {
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/home/register"))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(JSON.writeValueAsString(body)))
+                            .build(),
+                    HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 201) {
+                throw new IllegalStateException("Registration failed: " + response.statusCode() + " " + response.body());
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not register load test seller", e);
+        }
+    }
+
+    private List<String> loadCities() throws Exception {
+        HttpResponse<String> response = send(get("/cities"));
+        List<String> names = new ArrayList<>();
+        for (JsonNode city : JSON.readTree(response.body())) {
+            names.add(city.get("name").asText());
+        }
+        if (names.isEmpty()) {
+            throw new IllegalStateException("No cities returned by " + baseUrl + "/cities");
+        }
+        return names;
+    }
+
+    private String campaignBody(String name, String city, double fund) throws Exception {
+        return JSON.writeValueAsString(Map.of(
+                "name", name,
+                "keywordsNames", randomKeywords(),
+                "price", 1.0,
+                "fund", fund,
+                "status", true,
+                "city", city));
+    }
+
+    private HttpRequest get(String path) {
+        return request(path).GET().build();
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Authorization", authorization)
+                .header("Content-Type", "application/json");
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws Exception {
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (recording) {
+            statusCounts.computeIfAbsent(response.statusCode(), status -> new LongAdder()).increment();
+        }
+        return response;
+    }
+
+    private String randomCity() {
+        return cities.get(ThreadLocalRandom.current().nextInt(cities.size()));
+    }
+
+    private List<String> randomKeywords() {
+        int count = 1 + ThreadLocalRandom.current().nextInt(keywords.size());
+        List<String> shuffled = new ArrayList<>(keywords);
+        Collections.shuffle(shuffled, ThreadLocalRandom.current());
+        return shuffled.subList(0, count);
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static Operation[] parseMix(String mix) {
+        List<Operation> schedule = new ArrayList<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.split(":");
+            Operation operation = Operation.valueOf(parts[0].trim().toUpperCase());
+            int weight = Integer.parseInt(parts[1].trim());
+            for (int i = 0; i < weight; i++) {
+                schedule.add(operation);
+            }
+        }
+        return schedule.toArray(new Operation[0]);
+    }
+
+    private void writeReport(Duration measured) throws Exception {
+        double seconds = measured.toNanos() / 1e9;
+        Map<String, Object> operations = new LinkedHashMap<>();
+        long totalRequests = 0;
+        long totalErrors = 0;
+        for (Operation operation : Operation.values()) {
+            LatencyHistogram histogram = latencies.get(operation);
+            long count = histogram.count();
+            if (count == 0) {
+                continue;
+            }
+            totalRequests += count;
+            totalErrors += errors.get(operation).sum();
+            operations.put(operation.name().toLowerCase(), summary(histogram, errors.get(operation).sum(), seconds));
+        }
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("baseUrl", baseUrl);
+        report.put("concurrency", concurrency);
+        report.put("durationSeconds", seconds);
+        report.put("requests", totalRequests);
+        report.put("errors", totalErrors);
+        report.put("throughput", totalRequests / seconds);
+        report.put("operations", operations);
+        Path path = Path.of(reportFile);
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        JSON.writerWithDefaultPrettyPrinter().writeValue(path.toFile(), report);
+    }
+
+    private static Map<String, Object> summary(LatencyHistogram histogram, long errorCount, double seconds) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("requests", histogram.count());
+        summary.put("errors", errorCount);
+        summary.put("throughput", histogram.count() / seconds);
+        summary.put("p50Ms", histogram.percentileMillis(50));
+        summary.put("p90Ms", histogram.percentileMillis(90));
+        summary.put("p99Ms", histogram.percentileMillis(99));
+        summary.put("p999Ms", histogram.percentileMillis(99.9));
+        summary.put("maxMs", histogram.maxMillis());
+        return summary;
+    }
+
+    private void report(Duration measured) {
+        double seconds = measured.toNanos() / 1e9;
+        System.out.printf("%n%-9s %10s %8s %10s %9s %9s %9s %9s %9s%n",
+                "operation", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        long totalRequests = 0;
+        for (Operation operation : Operation.values()) {
+            LatencyHistogram histogram = latencies.get(operation);
+            long count = histogram.count();
+            totalRequests += count;
+            if (count == 0) {
+                continue;
+            }
+            System.out.printf("%-9s %10d %8d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    operation.name().toLowerCase(), count, errors.get(operation).sum(), count / seconds,
+                    histogram.percentileMillis(50), histogram.percentileMillis(90),
+                    histogram.percentileMillis(99), histogram.percentileMillis(99.9), histogram.maxMillis());
+        }
+        System.out.printf("%ntotal: %d requests in %.1fs (%.1f req/s), status codes: %s%n",
+                totalRequests, seconds, totalRequests / seconds, statusCounts);
+    }
+}
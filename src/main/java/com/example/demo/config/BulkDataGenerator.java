@@ -0,0 +1,331 @@
+package com.example.demo.config;
+
+import com.example.demo.services.CityCatalog;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Generates large volumes of synthetic sellers, cities, keywords and campaigns for local scaling
+ * tests. Enabled with the {@code bulk-seed} profile and tuned through {@code app.bulk-seed.*}
+ * properties. Rows are written with JDBC batch inserts in one transaction per batch, bypassing
+ * Hibernate entirely; IDs are taken in blocks from the same pooled sequences Hibernate uses, so
+ * both can keep inserting side by side. The in-memory indexes pick the data up when they build on
+ * startup.
+ * <p>
+ * City, keyword and seller popularity follow a Zipf distribution ({@code zipf-exponent=0} gives a
+ * uniform one), so a few cities and keywords own most campaigns, as in real traffic. Every
+ * generated seller logs in with the password configured in {@code seller-password}.
+ */
+@Configuration
+@Profile("bulk-seed")
+@Order(10)
+public class BulkDataGenerator implements CommandLineRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkDataGenerator.class);
+
+    // Roughly the bounding box of Poland, so synthetic cities land near the real ones.
+    private static final double MIN_LATITUDE = 49.0;
+    private static final double MAX_LATITUDE = 54.8;
+    private static final double MIN_LONGITUDE = 14.1;
+    private static final double MAX_LONGITUDE = 24.1;
+
+    // Must match allocationSize of the entities' @SequenceGenerator.
+    private static final int SEQUENCE_ALLOCATION_SIZE = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final CityCatalog cityCatalog;
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final int sellerCount;
+    private final int campaignCount;
+    private final int extraCityCount;
+    private final int extraKeywordCount;
+    private final int maxKeywordsPerCampaign;
+    private final double activeRatio;
+    private final double zipfExponent;
+    private final int batchSize;
+    private final long seed;
+    private final String sellerPassword;
+
+    public BulkDataGenerator(JdbcTemplate jdbcTemplate,
+                             TransactionTemplate transactionTemplate,
+                             PasswordEncoder passwordEncoder,
+                             CityCatalog cityCatalog,
+                             EntityManagerFactory entityManagerFactory,
+                             @Value("${app.bulk-seed.sellers:10000}") int sellerCount,
+                             @Value("${app.bulk-seed.campaigns:1000000}") int campaignCount,
+                             @Value("${app.bulk-seed.extra-cities:0}") int extraCityCount,
+                             @Value("${app.bulk-seed.extra-keywords:1000}") int extraKeywordCount,
+                             @Value("${app.bulk-seed.max-keywords-per-campaign:5}") int maxKeywordsPerCampaign,
+                             @Value("${app.bulk-seed.active-ratio:0.8}") double activeRatio,
+                             @Value("${app.bulk-seed.zipf-exponent:1.0}") double zipfExponent,
+                             @Value("${app.bulk-seed.batch-size:1000}") int batchSize,
+                             @Value("${app.bulk-seed.seed:42}") long seed,
+                             @Value("${app.bulk-seed.seller-password:password}") String sellerPassword) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.passwordEncoder = passwordEncoder;
+        this.cityCatalog = cityCatalog;
+        this.entityManagerFactory = entityManagerFactory;
+        this.sellerCount = sellerCount;
+        this.campaignCount = campaignCount;
+        this.extraCityCount = extraCityCount;
+        this.extraKeywordCount = extraKeywordCount;
+        this.maxKeywordsPerCampaign = maxKeywordsPerCampaign;
+        this.activeRatio = activeRatio;
+        this.zipfExponent = zipfExponent;
+        this.batchSize = batchSize;
+        this.seed = seed;
+        this.sellerPassword = sellerPassword;
+    }
+
+    @Override
+    public void run(String... args) {
+        long started = System.nanoTime();
+        SplittableRandom random = new SplittableRandom(seed);
+        // Names carry a run prefix so the generator can run repeatedly against the same database.
+        String run = Long.toString(System.currentTimeMillis(), 36);
+
+        if (extraCityCount > 0) {
+            insertCities(run, random);
+            cityCatalog.refresh();
+        }
+        insertKeywords(run);
+        long[] cityIds = queryIds("SELECT id FROM city ORDER BY id");
+        long[] keywordIds = queryIds("SELECT id FROM keyword ORDER BY id");
+        long[] sellerIds = insertSellers(run);
+
+        ZipfSampler cities = new ZipfSampler(cityIds.length, zipfExponent);
+        ZipfSampler keywords = new ZipfSampler(keywordIds.length, zipfExponent);
+        ZipfSampler sellers = new ZipfSampler(sellerIds.length, zipfExponent);
+
+        long links = 0;
+        for (int from = 0; from < campaignCount; from += batchSize) {
+            int size = Math.min(batchSize, campaignCount - from);
+            links += insertCampaignBatch(run, from, size, random, cityIds, cities, sellerIds, sellers, keywordIds, keywords);
+            if ((from / batchSize) % 100 == 0) {
+                log.info("Bulk seed: {}/{} campaigns", from + size, campaignCount);
+            }
+        }
+
+        log.info("Bulk seed finished in {} s: {} sellers, {} campaigns, {} keyword links, {} cities, {} keywords",
+                (System.nanoTime() - started) / 1_000_000_000, sellerIds.length, campaignCount, links,
+                cityIds.length, keywordIds.length);
+    }
+
+    private void insertCities(String run, SplittableRandom random) {
+        for (int from = 0; from < extraCityCount; from += batchSize) {
+            int size = Math.min(batchSize, extraCityCount - from);
+            int offset = from;
+            transactionTemplate.executeWithoutResult(status -> insert(
+                    "INSERT INTO city (id, name, latitude, longitude, latitude_rad, longitude_rad, sin_latitude, cos_latitude) "
+                            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+                    allocateIds("city_seq", size),
+                    (ps, i) -> {
+                        double latitude = random.nextDouble(MIN_LATITUDE, MAX_LATITUDE);
+                        double longitude = random.nextDouble(MIN_LONGITUDE, MAX_LONGITUDE);
+                        double latitudeRad = Math.toRadians(latitude);
+                        ps.setString(2, "bulk-" + run + "-city-" + (offset + i));
+                        ps.setDouble(3, latitude);
+                        ps.setDouble(4, longitude);
+                        ps.setDouble(5, latitudeRad);
+                        ps.setDouble(6, Math.toRadians(longitude));
+                        ps.setDouble(7, Math.sin(latitudeRad));
+                        ps.setDouble(8, Math.cos(latitudeRad));
+                    }));
+        }
+    }
+
+    private void insertKeywords(String run) {
+        for (int from = 0; from < extraKeywordCount; from += batchSize) {
+            int size = Math.min(batchSize, extraKeywordCount - from);
+            int offset = from;
+            transactionTemplate.executeWithoutResult(status -> insert(
+                    "INSERT INTO keyword (id, name) VALUES (?, ?)",
+                    allocateIds("keyword_seq", size),
+                    (ps, i) -> ps.setString(2, "bulk-" + run + "-keyword-" + (offset + i))));
+        }
+    }
+
+    private long[] insertSellers(String run) {
+        // One BCrypt hash for everybody - hashing millions of passwords would dominate the run.
+        String passwordHash = passwordEncoder.encode(sellerPassword);
+        long[] ids = new long[sellerCount];
+        for (int from = 0; from < sellerCount; from += batchSize) {
+            int size = Math.min(batchSize, sellerCount - from);
+            int offset = from;
+            long[] batchIds = allocateIds("seller_seq", size);
+            transactionTemplate.executeWithoutResult(status -> insert(
+                    "INSERT INTO seller (id, role, username, email, password, balance, version) VALUES (?, ?, ?, ?, ?, ?, 0)",
+                    batchIds,
+                    (ps, i) -> {
+                        String username = "bulk-" + run + "-seller-" + (offset + i);
+                        ps.setString(2, "ROLE_FREE_USER");
+                        ps.setString(3, username);
+                        ps.setString(4, username + "@example.com");
+                        ps.setString(5, passwordHash);
+                        ps.setDouble(6, 1_000_000.0);
+                    }));
+            System.arraycopy(batchIds, 0, ids, from, size);
+        }
+        log.info("Bulk seed: {} sellers inserted, usernames bulk-{}-seller-N", sellerCount, run);
+        return ids;
+    }
+
+    private long insertCampaignBatch(String run, int offset, int size, SplittableRandom random,
+                                     long[] cityIds, ZipfSampler cities,
+                                     long[] sellerIds, ZipfSampler sellers,
+                                     long[] keywordIds, ZipfSampler keywords) {
+        long[][] campaignKeywords = new long[size][];
+        for (int i = 0; i < size; i++) {
+            int count = 1 + random.nextInt(Math.min(maxKeywordsPerCampaign, keywordIds.length));
+            long[] chosen = new long[count];
+            int filled = 0;
+            while (filled < count) {
+                long keywordId = keywordIds[keywords.sample(random)];
+                if (!contains(chosen, filled, keywordId)) {
+                    chosen[filled++] = keywordId;
+                }
+            }
+            campaignKeywords[i] = chosen;
+        }
+
+        return transactionTemplate.execute(status -> {
+            long[] campaignIds = allocateIds("campaign_seq", size);
+            insert("INSERT INTO campaign (id, name, price, fund, status, city_id, seller_id, version) VALUES (?, ?, ?, ?, ?, ?, ?, 0)",
+                    campaignIds,
+                    (ps, i) -> {
+                        ps.setString(2, "bulk-" + run + "-campaign-" + (offset + i));
+                        ps.setDouble(3, 1 + random.nextInt(20));
+                        ps.setDouble(4, 100 + random.nextInt(100_000));
+                        ps.setBoolean(5, random.nextDouble() < activeRatio);
+                        ps.setLong(6, cityIds[cities.sample(random)]);
+                        ps.setLong(7, sellerIds[sellers.sample(random)]);
+                    });
+
+            long[] linkCampaigns = new long[Arrays.stream(campaignKeywords).mapToInt(k -> k.length).sum()];
+            long[] linkKeywords = new long[linkCampaigns.length];
+            int link = 0;
+            for (int i = 0; i < size; i++) {
+                for (long keywordId : campaignKeywords[i]) {
+                    linkCampaigns[link] = campaignIds[i];
+                    linkKeywords[link++] = keywordId;
+                }
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO campaign_keyword (campaign_id, keyword_id) VALUES (?, ?)",
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            ps.setLong(1, linkCampaigns[i]);
+                            ps.setLong(2, linkKeywords[i]);
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return linkCampaigns.length;
+                        }
+                    });
+            return (long) linkCampaigns.length;
+        });
+    }
+
+    /**
+     * Batch insert where the first parameter of every row is its preassigned ID.
+     */
+    private void insert(String sql, long[] ids, RowSetter setter) {
+        jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setLong(1, ids[i]);
+                setter.set(ps, i);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return ids.length;
+            }
+        });
+    }
+
+    /**
+     * Reserves {@code count} IDs from a pooled sequence. Like Hibernate's pooled optimizer, every
+     * {@code nextval} result {@code hi} owns the block {@code (hi - allocationSize, hi]}, so blocks
+     * handed out here never overlap the ones Hibernate takes for its own inserts.
+     */
+    private long[] allocateIds(String sequence, int count) {
+        String nextValue = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect().getSequenceSupport().getSequenceNextValString(sequence);
+        long[] ids = new long[count];
+        int filled = 0;
+        while (filled < count) {
+            long hi = jdbcTemplate.queryForObject(nextValue, Long.class);
+            for (long id = Math.max(1, hi - SEQUENCE_ALLOCATION_SIZE + 1); id <= hi && filled < count; id++) {
+                ids[filled++] = id;
+            }
+        }
+        return ids;
+    }
+
+    private long[] queryIds(String sql) {
+        return jdbcTemplate.queryForList(sql, Long.class).stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static boolean contains(long[] values, int length, long value) {
+        for (int i = 0; i < length; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @FunctionalInterface
+    private interface RowSetter {
+        void set(PreparedStatement ps, int i) throws SQLException;
+    }
+
+    /**
+     * Samples indexes {@code 0..n-1} with probability proportional to {@code 1 / (rank + 1)^exponent}
+     * by binary search over the precomputed cumulative distribution.
+     */
+    static final class ZipfSampler {
+
+        private final double[] cumulative;
+
+        ZipfSampler(int n, double exponent) {
+            cumulative = new double[n];
+            double sum = 0;
+            for (int i = 0; i < n; i++) {
+                sum += 1.0 / Math.pow(i + 1, exponent);
+                cumulative[i] = sum;
+            }
+            for (int i = 0; i < n; i++) {
+                cumulative[i] /= sum;
+            }
+        }
+
+        int sample(SplittableRandom random) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble());
+            int position = index >= 0 ? index : -index - 1;
+            return Math.min(position, cumulative.length - 1);
+        }
+    }
+}
@@ -2,18 +2,23 @@ package com.example.demo.config;
 
 import com.example.demo.entities.City;
 import com.example.demo.repositories.CityRepository;
+import com.example.demo.services.CityCatalog;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 
 import java.util.List;
 
 @Configuration
+@Order(1)
 public class CityInitializer implements CommandLineRunner {
 
     private final CityRepository cityRepository;
+    private final CityCatalog cityCatalog;
 
-    public CityInitializer(CityRepository cityRepository) {
+    public CityInitializer(CityRepository cityRepository, CityCatalog cityCatalog) {
         this.cityRepository = cityRepository;
+        this.cityCatalog = cityCatalog;
     }
 
     @Override
@@ -43,6 +48,7 @@ public class CityInitializer implements CommandLineRunner {
             );
 
             cityRepository.saveAll(cities);
+            cityCatalog.refresh();
         }
     }
 }
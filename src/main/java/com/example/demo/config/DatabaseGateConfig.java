@@ -0,0 +1,37 @@
+package com.example.demo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Wraps the application {@link DataSource} in a {@link GatedDataSource} when
+ * {@code app.db-gate.enabled=true} (on in the {@code virtual-threads} profile). The number of
+ * permits defaults to Hikari's maximum pool size.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.db-gate.enabled", havingValue = "true")
+public class DatabaseGateConfig {
+
+    @Bean
+    public static BeanPostProcessor databaseGatePostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof GatedDataSource) {
+                    return bean;
+                }
+                int poolSize = bean instanceof HikariDataSource hikari ? hikari.getMaximumPoolSize() : 10;
+                int permits = environment.getProperty("app.db-gate.permits", Integer.class, poolSize);
+                Duration timeout = environment.getProperty("app.db-gate.timeout", Duration.class, Duration.ofSeconds(5));
+                return new GatedDataSource(dataSource, permits, timeout);
+            }
+        };
+    }
+}
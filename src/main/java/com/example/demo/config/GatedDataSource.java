@@ -0,0 +1,105 @@
+package com.example.demo.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Bulkhead in front of the connection pool: at most {@code permits} connections can be checked out
+ * at once, further callers wait on a fair semaphore. With virtual threads the wait just parks the
+ * request, so thousands of concurrent searches queue cheaply in FIFO order instead of all spinning
+ * on pool acquisition. A caller that cannot get a permit within {@code timeout} fails fast with
+ * {@link SQLTransientConnectionException}, which the API reports as 503.
+ */
+public class GatedDataSource extends DelegatingDataSource {
+
+    private final Semaphore permits;
+    private final int maxPermits;
+    private final long timeoutNanos;
+
+    public GatedDataSource(DataSource target, int permits, Duration timeout) {
+        super(target);
+        this.permits = new Semaphore(permits, true);
+        this.maxPermits = permits;
+        this.timeoutNanos = timeout.toNanos();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return gated(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return gated(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public int getMaxPermits() {
+        return maxPermits;
+    }
+
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    public int getQueueLength() {
+        return permits.getQueueLength();
+    }
+
+    private void acquire() throws SQLException {
+        try {
+            if (!permits.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS)) {
+                throw new SQLTransientConnectionException("Database is busy: no connection permit within "
+                        + Duration.ofNanos(timeoutNanos).toMillis() + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a connection permit", e);
+        }
+    }
+
+    // Hands the permit back exactly once, when the caller closes (returns) the connection.
+    private Connection gated(Connection connection) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(
+                GatedDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("close") && released.compareAndSet(false, true)) {
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        } finally {
+                            permits.release();
+                        }
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+}
@@ -4,10 +4,12 @@ import com.example.demo.entities.Keyword;
 import com.example.demo.repositories.KeywordRepository;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 
 import java.util.List;
 
 @Configuration
+@Order(2)
 public class KeywordInitializer implements CommandLineRunner {
 
     private final KeywordRepository keywordRepository;
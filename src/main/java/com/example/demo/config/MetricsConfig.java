@@ -0,0 +1,42 @@
+package com.example.demo.config;
+
+import com.example.demo.metrics.StatementCountingInspector;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class MetricsConfig {
+
+    // Enables @Timed on the service classes.
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer statementCountingCustomizer() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new StatementCountingInspector());
+    }
+
+    @Bean
+    public MeterBinder databaseGateMetrics(DataSource dataSource) {
+        return registry -> {
+            if (dataSource instanceof GatedDataSource gate) {
+                Gauge.builder("app.db.gate.available", gate, GatedDataSource::getAvailablePermits)
+                        .description("Free connection permits of the database gate")
+                        .register(registry);
+                Gauge.builder("app.db.gate.waiting", gate, GatedDataSource::getQueueLength)
+                        .description("Requests waiting for a connection permit")
+                        .register(registry);
+            }
+        };
+    }
+}
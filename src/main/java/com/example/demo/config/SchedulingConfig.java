@@ -0,0 +1,10 @@
+package com.example.demo.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Periodic flushes of the write-behind buffers (@Scheduled).
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,71 @@
+package com.example.demo.controllers;
+
+import com.example.demo.dtos.CampaignChangePageDTO;
+import com.example.demo.exceptions.BadRequestException;
+import com.example.demo.exceptions.ServiceUnavailableException;
+import com.example.demo.feed.CampaignChangeFeed;
+import com.example.demo.feed.ChangeFeedSubscriptions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+
+@RestController
+@RequestMapping("/campaigns/changes")
+public class CampaignChangeFeedController {
+
+    static final int DEFAULT_LIMIT = 100;
+    static final int MAX_LIMIT = 1000;
+    static final long MAX_WAIT_SECONDS = 60;
+
+    private final CampaignChangeFeed campaignChangeFeed;
+    private final ChangeFeedSubscriptions changeFeedSubscriptions;
+    private final Duration streamTimeout;
+
+    public CampaignChangeFeedController(CampaignChangeFeed campaignChangeFeed,
+                                        ChangeFeedSubscriptions changeFeedSubscriptions,
+                                        @Value("${app.change-feed.stream-timeout:30m}") Duration streamTimeout) {
+        this.campaignChangeFeed = campaignChangeFeed;
+        this.changeFeedSubscriptions = changeFeedSubscriptions;
+        this.streamTimeout = streamTimeout;
+    }
+
+    @GetMapping
+    public DeferredResult<CampaignChangePageDTO> getChanges(@RequestParam(defaultValue = "0") long after,
+                                                            @RequestParam(required = false) Integer limit,
+                                                            @RequestParam(defaultValue = "0") long waitSeconds) {
+        requireReady();
+        int size = limit != null ? limit : DEFAULT_LIMIT;
+        if (size <= 0) {
+            throw new BadRequestException("Limit must be greater than zero");
+        }
+        if (waitSeconds < 0) {
+            throw new BadRequestException("waitSeconds must not be negative");
+        }
+        return changeFeedSubscriptions.longPoll(after, Math.min(size, MAX_LIMIT),
+                Duration.ofSeconds(Math.min(waitSeconds, MAX_WAIT_SECONDS)));
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+                                    @RequestParam(required = false) Long after) {
+        requireReady();
+        // A reconnecting EventSource resumes from its last event; a new subscriber without a cursor
+        // gets only the changes from now on.
+        long cursor = lastEventId != null ? lastEventId : after != null ? after : campaignChangeFeed.lastSequence();
+        return changeFeedSubscriptions.stream(cursor, streamTimeout);
+    }
+
+    private void requireReady() {
+        if (!campaignChangeFeed.isReady()) {
+            throw new ServiceUnavailableException("Change feed is not ready yet, retry later");
+        }
+    }
+}
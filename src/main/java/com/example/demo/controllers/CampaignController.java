@@ -1,51 +1,111 @@
 package com.example.demo.controllers;
 
 
+import com.example.demo.dtos.BillingEventBatchDTO;
+import com.example.demo.dtos.BillingResultDTO;
+import com.example.demo.dtos.BulkCampaignImportDTO;
+import com.example.demo.dtos.BulkCampaignSelectionDTO;
+import com.example.demo.dtos.BulkCampaignStatusDTO;
+import com.example.demo.dtos.BulkImportResultDTO;
+import com.example.demo.dtos.BulkOperationResultDTO;
 import com.example.demo.dtos.CampaignDTO;
+import com.example.demo.dtos.CampaignPageDTO;
 import com.example.demo.dtos.CreateCampaignDTO;
+import com.example.demo.dtos.SelectedCampaignDTO;
 import com.example.demo.dtos.UpdateCampaignStatusDTO;
+import com.example.demo.search.ResourceVersions;
 import com.example.demo.security.CustomUserDetails;
+import com.example.demo.services.CampaignBillingService;
+import com.example.demo.services.CampaignBulkService;
+import com.example.demo.services.CampaignImportService;
+import com.example.demo.services.CampaignSelectionService;
 import com.example.demo.services.CampaignService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.util.StreamUtils;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 @RestController
 @RequestMapping("/campaigns")
 public class CampaignController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    // Lets clients keep the body but makes them revalidate it (Spring Security would send no-store).
+    static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
     private final CampaignService campaignService;
+    private final CampaignImportService campaignImportService;
+    private final CampaignBulkService campaignBulkService;
+    private final CampaignSelectionService campaignSelectionService;
+    private final CampaignBillingService campaignBillingService;
+    private final ResourceVersions resourceVersions;
+    private final ObjectMapper objectMapper;
 
-    public CampaignController(CampaignService campaignService) {
+    public CampaignController(CampaignService campaignService, CampaignImportService campaignImportService,
+                              CampaignBulkService campaignBulkService, CampaignSelectionService campaignSelectionService,
+                              CampaignBillingService campaignBillingService, ResourceVersions resourceVersions,
+                              ObjectMapper objectMapper) {
         this.campaignService = campaignService;
+        this.campaignImportService = campaignImportService;
+        this.campaignBulkService = campaignBulkService;
+        this.campaignSelectionService = campaignSelectionService;
+        this.campaignBillingService = campaignBillingService;
+        this.resourceVersions = resourceVersions;
+        this.objectMapper = objectMapper;
     }
 
+    // Conditional GETs: the ETag is computed first and a matching If-None-Match ends the request with
+    // 304 before anything is loaded. checkNotModified also sets the ETag header on a 200.
     @GetMapping("/{campaignId}")
     public ResponseEntity<CampaignDTO> getUserCampaignById(@AuthenticationPrincipal CustomUserDetails user,
-                                                           @PathVariable Long campaignId) {
+                                                           @PathVariable Long campaignId, WebRequest request) {
+        // Pending status before the version: a flush clears it only after its version bump commits.
+        Optional<Boolean> pendingStatus = campaignService.findPendingStatus(campaignId);
+        long version = campaignService.findVersionByUsernameAndId(user.getUsername(), campaignId);
+        if (request.checkNotModified(resourceVersions.campaign(campaignId, version, pendingStatus))) {
+            return null;
+        }
         CampaignDTO campaign = campaignService.findByUsernameAndId(user.getUsername(), campaignId);
-        return ResponseEntity.ok(campaign);
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(campaign);
     }
 
     @GetMapping
     public ResponseEntity<List<CampaignDTO>> getCampaigns(
             @AuthenticationPrincipal CustomUserDetails user,
             @RequestParam(required = false) String city,
-            @RequestParam(required = false) String name) {
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit,
+            WebRequest request) {
+        if (request.checkNotModified(resourceVersions.sellerCampaigns(user.getUsername()))) {
+            return null;
+        }
         List<CampaignDTO> campaigns;
         if (city != null) {
             campaigns = campaignService.findAllByUsernameAndCity(user.getUsername(), city);
         } else if (name != null) {
             campaigns = campaignService.findAllByUsernameAndName(user.getUsername(), name);
+        } else if (after != null || limit != null) {
+            return pageResponse(campaignService.findAllByUsername(user.getUsername(), after, limit));
         } else {
             campaigns = campaignService.findAllByUsername(user.getUsername());
         }
-        return ResponseEntity.ok(campaigns);
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(campaigns);
     }
 
     @PostMapping()
@@ -54,6 +114,30 @@ public class CampaignController {
         CampaignDTO createdCampaign = campaignService.createCampaign(user.getUsername(), campaignDTO);
         return ResponseEntity.status(HttpStatus.CREATED).body(createdCampaign);
     }
+
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkImportResultDTO> importCampaigns(@AuthenticationPrincipal CustomUserDetails user,
+                                                               @Valid @RequestBody BulkCampaignImportDTO importDTO) {
+        BulkImportResultDTO result = campaignImportService.importCampaigns(user.getUsername(), importDTO.campaigns());
+        return ResponseEntity.status(HttpStatus.CREATED).body(result);
+    }
+
+    @PatchMapping("/bulk/status")
+    public ResponseEntity<BulkOperationResultDTO> updateCampaignsStatus(@AuthenticationPrincipal CustomUserDetails user,
+                                                                        @Valid @RequestBody BulkCampaignStatusDTO statusDTO) {
+        BulkOperationResultDTO result = campaignBulkService.updateStatus(
+                user.getUsername(), statusDTO.ids(), statusDTO.city(), Boolean.TRUE.equals(statusDTO.all()), statusDTO.status());
+        return ResponseEntity.ok(result);
+    }
+
+    @PostMapping("/bulk/delete")
+    public ResponseEntity<BulkOperationResultDTO> deleteCampaigns(@AuthenticationPrincipal CustomUserDetails user,
+                                                                  @Valid @RequestBody BulkCampaignSelectionDTO selectionDTO) {
+        BulkOperationResultDTO result = campaignBulkService.delete(
+                user.getUsername(), selectionDTO.ids(), selectionDTO.city(), Boolean.TRUE.equals(selectionDTO.all()));
+        return ResponseEntity.ok(result);
+    }
+
     @GetMapping("/{campaignId}/status")
     public ResponseEntity<Boolean> getCampaignStatus(@AuthenticationPrincipal CustomUserDetails user,
                                                      @PathVariable Long campaignId) {
@@ -91,14 +175,73 @@ public class CampaignController {
     }
 
     @GetMapping("/all")
-    public List<CampaignDTO> getAllCampaigns() {
-        return campaignService.findAll();
+    public ResponseEntity<?> getAllCampaigns(@RequestParam(required = false) Long after,
+                                             @RequestParam(required = false) Integer limit) {
+        if (after != null || limit != null) {
+            return pageResponse(campaignService.findAll(after, limit));
+        }
+        return campaignService.campaignSnapshot()
+                .<ResponseEntity<?>>map(snapshot -> jsonResponse(snapshot::writeAll))
+                .orElseGet(() -> ResponseEntity.ok(campaignService.findAll()));
+    }
+
+    @GetMapping(value = "/all", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllCampaigns() {
+        return ndjsonResponse(campaignService::streamAll);
     }
 
     @GetMapping("all/by-city/{city}")
-    public ResponseEntity<List<CampaignDTO>> getCampaignsByCity(@PathVariable String city) {
-        List<CampaignDTO> campaigns = campaignService.findByCity(city);
-        return ResponseEntity.ok(campaigns);
+    public ResponseEntity<?> getCampaignsByCity(@PathVariable String city,
+                                                @RequestParam(required = false) Long after,
+                                                @RequestParam(required = false) Integer limit) {
+        if (after != null || limit != null) {
+            return pageResponse(campaignService.findByCity(city, after, limit));
+        }
+        return campaignService.campaignSnapshot()
+                .<ResponseEntity<?>>map(snapshot -> jsonResponse(generator -> snapshot.writeByCity(city, generator)))
+                .orElseGet(() -> ResponseEntity.ok(campaignService.findByCity(city)));
+    }
+
+    @GetMapping(value = "all/by-city/{city}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamCampaignsByCity(@PathVariable String city) {
+        return ndjsonResponse(consumer -> campaignService.streamByCity(city, consumer));
+    }
+
+    // The body stays a plain JSON array so existing clients keep working; the cursor for the next
+    // page travels in a header and is absent on the last page.
+    private static ResponseEntity<List<CampaignDTO>> pageResponse(CampaignPageDTO page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().cacheControl(REVALIDATE);
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, String.valueOf(page.nextCursor()));
+        }
+        return response.body(page.items());
+    }
+
+    private ResponseEntity<StreamingResponseBody> ndjsonResponse(Consumer<Consumer<CampaignDTO>> source) {
+        StreamingResponseBody body = outputStream -> source.accept(campaign -> {
+            try {
+                outputStream.write(objectMapper.writeValueAsBytes(campaign));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    // Writes the snapshot straight into the response stream - no entities, DTOs or intermediate byte[].
+    private ResponseEntity<StreamingResponseBody> jsonResponse(JsonBody source) {
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(StreamUtils.nonClosing(outputStream))) {
+                source.writeTo(generator);
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    @FunctionalInterface
+    private interface JsonBody {
+        void writeTo(JsonGenerator generator) throws IOException;
     }
 
     @PreAuthorize("hasRole('ROLE_ADMIN')")
@@ -125,5 +268,21 @@ public class CampaignController {
         return ResponseEntity.ok(campaigns);
     }
 
+    @GetMapping("/select")
+    public ResponseEntity<List<SelectedCampaignDTO>> selectCampaigns(
+            @RequestParam String searchCityName,
+            @RequestParam double searchRadius,
+            @RequestParam(required = false) List<String> keywords,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(campaignSelectionService.select(searchCityName, searchRadius, keywords, limit));
+    }
+
+    // Events come from the ad-serving side, not from sellers, who could otherwise drain any campaign.
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PostMapping("/billing/events")
+    public ResponseEntity<BillingResultDTO> recordBillingEvents(@Valid @RequestBody BillingEventBatchDTO batchDTO) {
+        return ResponseEntity.ok(campaignBillingService.ingest(batchDTO.events()));
+    }
+
 
 }
@@ -1,27 +1,42 @@
 package com.example.demo.controllers;
 
-import com.example.demo.dtos.CityDTO;
+import com.example.demo.services.CityCatalog;
 import com.example.demo.services.CityService;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("/cities")
 public class CityController {
 
     private final CityService cityService;
+    private final CityCatalog cityCatalog;
 
-    public CityController(CityService cityService) {
+    public CityController(CityService cityService, CityCatalog cityCatalog) {
         this.cityService = cityService;
+        this.cityCatalog = cityCatalog;
+    }
+
+    // The body is serialized once per catalog load; a matching If-None-Match gets a 304 from Spring.
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getAllCities() {
+        return ResponseEntity.ok()
+                .eTag(cityCatalog.etag())
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(cityCatalog.jsonBody());
     }
 
-    @GetMapping
-    public ResponseEntity<List<CityDTO>> getAllCities() {
-        List<CityDTO> cities = cityService.findAll();
-        return ResponseEntity.ok(cities);
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PostMapping("/refresh")
+    public ResponseEntity<Void> refresh() {
+        cityService.refresh();
+        return ResponseEntity.noContent().build();
     }
 }
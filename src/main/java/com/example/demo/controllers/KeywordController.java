@@ -1,27 +1,39 @@
 package com.example.demo.controllers;
+import com.example.demo.search.ResourceVersions;
 import com.example.demo.services.KeywordService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/keywords")
 public class KeywordController {
 
     private final KeywordService keywordService;
+    private final ResourceVersions resourceVersions;
 
 
-    public KeywordController(KeywordService keywordService) {
+    public KeywordController(KeywordService keywordService, ResourceVersions resourceVersions) {
         this.keywordService = keywordService;
+        this.resourceVersions = resourceVersions;
     }
 
+    // Tagged with the suggestion index generation, read before the lookup; no tag before the index is built.
     @GetMapping("/suggest")
-    public ResponseEntity<List<String>> suggestKeywords(@RequestParam(required = false) String q) {
-        List<String> suggestions = keywordService.suggest(q);
-        return ResponseEntity.ok(suggestions);
+    public ResponseEntity<List<String>> suggestKeywords(@RequestParam(required = false) String q,
+                                                        @RequestParam(defaultValue = "" + KeywordService.DEFAULT_SUGGESTION_LIMIT) int limit,
+                                                        WebRequest request) {
+        Optional<String> etag = resourceVersions.keywordSuggestions();
+        if (etag.isPresent() && request.checkNotModified(etag.get())) {
+            return null;
+        }
+        List<String> suggestions = keywordService.suggest(q, limit);
+        return ResponseEntity.ok().cacheControl(CampaignController.REVALIDATE).body(suggestions);
     }
-}
\ No newline at end of file
+}
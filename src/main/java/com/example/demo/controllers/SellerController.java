@@ -6,6 +6,10 @@ import com.example.demo.dtos.SellerDTO;
 import com.example.demo.security.CustomUserDetails;
 import com.example.demo.services.SellerService;
 import jakarta.validation.Valid;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -18,6 +22,8 @@ import java.util.List;
 @RequestMapping("/sellers")
 public class SellerController {
 
+    static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+
     private final SellerService sellerService;
 
     public SellerController(SellerService sellerService) {
@@ -43,9 +49,12 @@ public class SellerController {
 
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @GetMapping()
-    public ResponseEntity<List<SellerDTO>> getAllSellers() {
-        List<SellerDTO> sellers = sellerService.findAll();
-        return ResponseEntity.ok(sellers);
+    public ResponseEntity<List<SellerDTO>> getAllSellers(
+            @PageableDefault(size = 50, sort = "id", direction = Sort.Direction.ASC) Pageable pageable) {
+        Page<SellerDTO> sellers = sellerService.findPage(pageable);
+        return ResponseEntity.ok()
+                .header(TOTAL_COUNT_HEADER, String.valueOf(sellers.getTotalElements()))
+                .body(sellers.getContent());
     }
 
     @PreAuthorize("hasRole('ROLE_ADMIN')")
@@ -0,0 +1,13 @@
+package com.example.demo.dtos;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record BillingEventBatchDTO(
+        @NotEmpty @Size(max = 10_000) List<@NotNull @Valid BillingEventDTO> events
+) {
+}
@@ -0,0 +1,14 @@
+package com.example.demo.dtos;
+
+import jakarta.validation.constraints.NotNull;
+
+public record BillingEventDTO(
+        @NotNull Long campaignId,
+        @NotNull Type type
+) {
+
+    public enum Type {
+        IMPRESSION,
+        CLICK
+    }
+}
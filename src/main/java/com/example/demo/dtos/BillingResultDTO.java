@@ -0,0 +1,4 @@
+package com.example.demo.dtos;
+
+public record BillingResultDTO(int accepted, int rejected, double charged) {
+}
@@ -0,0 +1,12 @@
+package com.example.demo.dtos;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record BulkCampaignImportDTO(
+        @NotEmpty @Size(max = 10_000) List<@Valid CreateCampaignDTO> campaigns
+) {
+}
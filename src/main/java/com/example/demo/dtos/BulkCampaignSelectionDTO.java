@@ -0,0 +1,18 @@
+package com.example.demo.dtos;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * Campaigns of the current seller to act on: the given IDs and/or every campaign in {@code city}.
+ * Selecting all of the seller's campaigns takes neither filter and an explicit {@code all: true},
+ * so a request with a missing or misspelled filter is rejected instead of matching everything.
+ */
+public record BulkCampaignSelectionDTO(
+        @Size(max = 10_000) List<@NotNull Long> ids,
+        String city,
+        Boolean all
+) {
+}
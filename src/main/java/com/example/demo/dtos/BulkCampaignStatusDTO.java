@@ -0,0 +1,17 @@
+package com.example.demo.dtos;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * Status to set on campaigns of the current seller, selected as in {@link BulkCampaignSelectionDTO}.
+ */
+public record BulkCampaignStatusDTO(
+        @Size(max = 10_000) List<@NotNull Long> ids,
+        String city,
+        Boolean all,
+        @NotNull Boolean status
+) {
+}
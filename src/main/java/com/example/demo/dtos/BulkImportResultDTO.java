@@ -0,0 +1,9 @@
+package com.example.demo.dtos;
+
+public record BulkImportResultDTO(
+        int created,
+        int transactions,
+        long durationMillis,
+        double campaignsPerSecond
+) {
+}
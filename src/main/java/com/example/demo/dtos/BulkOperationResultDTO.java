@@ -0,0 +1,4 @@
+package com.example.demo.dtos;
+
+public record BulkOperationResultDTO(int affected, double refunded) {
+}
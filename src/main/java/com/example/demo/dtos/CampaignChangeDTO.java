@@ -0,0 +1,19 @@
+package com.example.demo.dtos;
+
+import com.example.demo.events.CampaignChangedEvent;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+import java.time.Instant;
+
+/**
+ * @param campaign the campaign as JSON ({@link CampaignDTO}), copied verbatim from the outbox:
+ *                 the state after the change, or the last state for {@code DELETED}
+ */
+public record CampaignChangeDTO(
+        long sequence,
+        CampaignChangedEvent.Type type,
+        long campaignId,
+        @JsonRawValue String campaign,
+        Instant changedAt
+) {
+}
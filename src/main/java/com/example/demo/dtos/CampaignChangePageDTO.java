@@ -0,0 +1,15 @@
+package com.example.demo.dtos;
+
+import java.util.List;
+
+/**
+ * @param next  cursor for the next request ({@code after})
+ * @param reset the cursor is no longer (or not yet) in the feed; reload the full list and continue
+ *              from {@code next}
+ */
+public record CampaignChangePageDTO(
+        List<CampaignChangeDTO> changes,
+        long next,
+        boolean reset
+) {
+}
@@ -19,10 +19,14 @@ public record CampaignDTO(
         String sellerName) {
 
     public static CampaignDTO fromEntity(Campaign campaign){
+        return fromEntity(campaign, campaign.getKeywords().stream().map(Keyword::getName).collect(Collectors.toSet()));
+    }
+
+    public static CampaignDTO fromEntity(Campaign campaign, Set<String> keywordsNames){
         return new CampaignDTO(
                 campaign.getId(),
                 campaign.getName(),
-                campaign.getKeywords().stream().map(Keyword::getName).collect(Collectors.toSet()),
+                keywordsNames,
                 campaign.getPrice(),
                 campaign.getFund(),
                 campaign.isStatus(),
@@ -0,0 +1,9 @@
+package com.example.demo.dtos;
+
+import java.util.List;
+
+public record CampaignPageDTO(
+        List<CampaignDTO> items,
+        Long nextCursor
+) {
+}
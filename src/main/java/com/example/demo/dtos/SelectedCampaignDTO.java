@@ -0,0 +1,4 @@
+package com.example.demo.dtos;
+
+public record SelectedCampaignDTO(CampaignDTO campaign, double distanceKm, double score) {
+}
@@ -0,0 +1,10 @@
+package com.example.demo.dtos;
+
+public record SellerSummaryDTO(
+        Long id,
+        String username,
+        String email,
+        double balance,
+        Long campaignCount
+) {
+}
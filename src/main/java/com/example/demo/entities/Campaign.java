@@ -9,6 +9,7 @@ import java.util.Set;
 
 @Data
 @Entity
+@Table(indexes = @Index(name = "idx_campaign_city_id", columnList = "city_id"))
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
@@ -17,7 +18,8 @@ import java.util.Set;
 public class Campaign {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "campaign_seq")
+    @SequenceGenerator(name = "campaign_seq", sequenceName = "campaign_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false,unique = true)
@@ -49,6 +51,10 @@ public class Campaign {
     @JoinColumn(name = "seller_id", nullable = false)
     private Seller seller;
 
+    // Optimistic lock and the ETag of GET /campaigns/{id}; bulk updates bump it themselves.
+    @Version
+    private long version;
+
     public void addKeyword(Keyword keyword) {
         this.keywords.add(keyword);
     }
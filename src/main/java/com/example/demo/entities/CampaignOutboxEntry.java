@@ -0,0 +1,49 @@
+package com.example.demo.entities;
+
+import com.example.demo.events.CampaignChangedEvent;
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * One campaign change, written in the transaction that made it and later numbered by the change
+ * feed relay (see {@link com.example.demo.feed.CampaignChangeFeed}).
+ */
+@Entity
+@Data
+@Table(name = "campaign_outbox", indexes = @Index(name = "idx_campaign_outbox_feed_sequence", columnList = "feed_sequence"))
+public class CampaignOutboxEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "campaign_outbox_seq")
+    @SequenceGenerator(name = "campaign_outbox_seq", sequenceName = "campaign_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private CampaignChangedEvent.Type type;
+
+    @Column(nullable = false)
+    private long campaignId;
+
+    // CampaignDTO as JSON: the state after the change, or the last state for deletions.
+    @Column(nullable = false, length = 65_535)
+    private String payload;
+
+    @Column(nullable = false)
+    private Instant changedAt;
+
+    // Position in the feed; null until relayed.
+    private Long feedSequence;
+
+    public CampaignOutboxEntry() {
+    }
+
+    public CampaignOutboxEntry(CampaignChangedEvent.Type type, long campaignId, String payload, Instant changedAt) {
+        this.type = type;
+        this.campaignId = campaignId;
+        this.payload = payload;
+        this.changedAt = changedAt;
+    }
+}
@@ -5,10 +5,12 @@ import lombok.Data;
 
 @Entity
 @Data
+@Table(indexes = @Index(name = "idx_city_latitude_longitude", columnList = "latitude, longitude"))
 public class City {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "city_seq")
+    @SequenceGenerator(name = "city_seq", sequenceName = "city_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true)
@@ -20,6 +22,19 @@ public class City {
     @Column(nullable = false)
     private double longitude;
 
+    // Precomputed so the distance queries don't evaluate radians()/sin()/cos() per row.
+    @Column(nullable = false)
+    private double latitudeRad;
+
+    @Column(nullable = false)
+    private double longitudeRad;
+
+    @Column(nullable = false)
+    private double sinLatitude;
+
+    @Column(nullable = false)
+    private double cosLatitude;
+
     public City() {
     }
 
@@ -28,4 +43,13 @@ public class City {
         this.latitude = latitude;
         this.longitude = longitude;
     }
-}
\ No newline at end of file
+
+    @PrePersist
+    @PreUpdate
+    void computeTrigonometry() {
+        this.latitudeRad = Math.toRadians(latitude);
+        this.longitudeRad = Math.toRadians(longitude);
+        this.sinLatitude = Math.sin(latitudeRad);
+        this.cosLatitude = Math.cos(latitudeRad);
+    }
+}
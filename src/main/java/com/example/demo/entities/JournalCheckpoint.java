@@ -0,0 +1,35 @@
+package com.example.demo.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.Data;
+
+/**
+ * Highest journal segment whose records are already in the database, written in the same
+ * transaction as the records themselves (see {@link com.example.demo.journal.SegmentedJournal}),
+ * and the epoch the journal segments are tagged with. The row lives and dies with the schema, so a
+ * recreated schema gets a new epoch and the segments written for the old one are discarded.
+ */
+@Entity
+@Data
+public class JournalCheckpoint {
+
+    @Id
+    private String journal;
+
+    @Column(nullable = false)
+    private String epoch;
+
+    @Column(nullable = false)
+    private long segment;
+
+    public JournalCheckpoint() {
+    }
+
+    public JournalCheckpoint(String journal, String epoch, long segment) {
+        this.journal = journal;
+        this.epoch = epoch;
+        this.segment = segment;
+    }
+}
@@ -17,7 +17,8 @@ import java.util.Set;
 public class Keyword {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "keyword_seq")
+    @SequenceGenerator(name = "keyword_seq", sequenceName = "keyword_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true)
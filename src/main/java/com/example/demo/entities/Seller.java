@@ -11,7 +11,8 @@ import java.util.List;
 @Data
 public class Seller {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "seller_seq")
+    @SequenceGenerator(name = "seller_seq", sequenceName = "seller_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -29,6 +30,9 @@ public class Seller {
     @Column
     private double balance;
 
+    @Version
+    private long version;
+
     @OneToMany(mappedBy = "seller", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Campaign> campaigns = new ArrayList<>();
 }
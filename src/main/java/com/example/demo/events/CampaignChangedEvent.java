@@ -0,0 +1,44 @@
+package com.example.demo.events;
+
+import com.example.demo.dtos.CampaignDTO;
+
+/**
+ * Published by {@link com.example.demo.services.CampaignService} whenever a campaign is written.
+ * Carries the state before and after the change so listeners (indexes, caches) can patch
+ * themselves without going back to the database.
+ */
+public record CampaignChangedEvent(Type type, CampaignDTO previous, CampaignDTO current) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        STATUS_CHANGED,
+        // Only the fund changed (billing); nothing indexed by location or keyword is affected.
+        FUND_CHANGED,
+        DELETED
+    }
+
+    public static CampaignChangedEvent created(CampaignDTO current) {
+        return new CampaignChangedEvent(Type.CREATED, null, current);
+    }
+
+    public static CampaignChangedEvent updated(CampaignDTO previous, CampaignDTO current) {
+        return new CampaignChangedEvent(Type.UPDATED, previous, current);
+    }
+
+    public static CampaignChangedEvent statusChanged(CampaignDTO previous, CampaignDTO current) {
+        return new CampaignChangedEvent(Type.STATUS_CHANGED, previous, current);
+    }
+
+    public static CampaignChangedEvent fundChanged(CampaignDTO previous, CampaignDTO current) {
+        return new CampaignChangedEvent(Type.FUND_CHANGED, previous, current);
+    }
+
+    public static CampaignChangedEvent deleted(CampaignDTO previous) {
+        return new CampaignChangedEvent(Type.DELETED, previous, null);
+    }
+
+    public long campaignId() {
+        return current != null ? current.id() : previous.id();
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.demo.events;
+
+/**
+ * Published after {@link com.example.demo.services.CityCatalog#refresh()} swapped in new city data,
+ * so components that derive structures from city coordinates can rebuild them.
+ */
+public record CityCatalogRefreshedEvent(int cityCount) {
+}
@@ -1,7 +1,11 @@
 package com.example.demo.exceptions;
 
 
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
@@ -72,6 +76,29 @@ public class GlobalExceptionHandler {
         return buildResponse(ex, 409);
     }
 
+    // The row changed between read and write (@Version mismatch); the client can re-read and retry.
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Object> handleOptimisticLock(OptimisticLockingFailureException ex) {
+        return buildResponse(ex, 409);
+    }
+
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<Object> handleServiceUnavailable(ServiceUnavailableException ex) {
+        return buildResponse(ex, 503);
+    }
+
+    // No database connection in time (pool or DB gate exhausted) - the client should retry later.
+    @ExceptionHandler({CannotCreateTransactionException.class, DataAccessResourceFailureException.class})
+    public ResponseEntity<Object> handleDatabaseUnavailable(Exception ex) {
+        return buildResponse(ex, 503);
+    }
+
+    // @PreAuthorize denials are thrown from the controller, so they would otherwise end up as 500.
+    @ExceptionHandler(AccessDeniedException.class)
+    public ResponseEntity<Object> handleAccessDenied(AccessDeniedException ex) {
+        return buildResponse(ex, 403);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Object> handleFallback(Exception ex) {
         return buildResponse(ex, 500);
@@ -0,0 +1,168 @@
+package com.example.demo.feed;
+
+import com.example.demo.dtos.CampaignChangeDTO;
+import com.example.demo.entities.CampaignOutboxEntry;
+import com.example.demo.repositories.CampaignOutboxRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Ordered, resumable stream of campaign changes. A single relay polls the outbox for committed,
+ * not yet relayed entries and numbers them 1, 2, 3, ... in the order it sees them (outbox IDs
+ * are allocated before commit, so they can commit out of order; feed sequences cannot). The
+ * numbers are stored with the entries, so cursors stay valid across restarts, and the entries go
+ * to a {@link ChangeFeedBuffer} that serves subscribers near the head without a query.
+ * <p>
+ * Relayed entries older than {@code app.change-feed.retention} are deleted; a cursor before the
+ * oldest remaining entry, or past the last one (e.g. from a previous database), is
+ * {@link #isExpired expired} and the subscriber has to reload.
+ */
+@Component
+public class CampaignChangeFeed {
+
+    private static final Logger log = LoggerFactory.getLogger(CampaignChangeFeed.class);
+    private static final int RELAY_BATCH_SIZE = 1000;
+
+    private final CampaignOutboxRepository campaignOutboxRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration retention;
+    private final ChangeFeedBuffer buffer;
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+
+    private volatile boolean ready;
+    private volatile long lastSequence;
+    private volatile long firstAvailable;
+
+    public CampaignChangeFeed(CampaignOutboxRepository campaignOutboxRepository, TransactionTemplate transactionTemplate,
+                              ObjectMapper objectMapper,
+                              @Value("${app.change-feed.retention:24h}") Duration retention,
+                              @Value("${app.change-feed.buffer-size:65536}") int bufferSize) {
+        this.campaignOutboxRepository = campaignOutboxRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.retention = retention;
+        this.buffer = new ChangeFeedBuffer(bufferSize);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        Long max = campaignOutboxRepository.findMaxFeedSequence();
+        lastSequence = max != null ? max : 0;
+        Long min = campaignOutboxRepository.findMinFeedSequence();
+        firstAvailable = min != null ? min : lastSequence + 1;
+        buffer.reset(lastSequence);
+        ready = true;
+        log.info("Campaign change feed at sequence {} (retained from {})", lastSequence, firstAvailable);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public long lastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Called on the relay thread after every batch of new entries; must not block.
+     */
+    public void addListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    public boolean isExpired(long after) {
+        return after > lastSequence || after + 1 < firstAvailable;
+    }
+
+    /**
+     * Up to {@code limit} entries after the (not {@link #isExpired expired}) cursor.
+     */
+    List<ChangeFeedEntry> read(long after, int limit) {
+        List<ChangeFeedEntry> buffered = buffer.read(after, limit);
+        if (buffered != null) {
+            return buffered;
+        }
+        List<ChangeFeedEntry> entries = new ArrayList<>();
+        for (CampaignOutboxEntry entry : campaignOutboxRepository.findByFeedSequenceGreaterThanOrderByFeedSequence(
+                after, PageRequest.ofSize(limit))) {
+            entries.add(toFeedEntry(entry));
+        }
+        return entries;
+    }
+
+    @Scheduled(fixedDelayString = "${app.change-feed.relay-interval:100ms}")
+    public void relay() {
+        if (!ready) {
+            return;
+        }
+        int relayed;
+        do {
+            long from = lastSequence;
+            List<CampaignOutboxEntry> entries = transactionTemplate.execute(tx -> {
+                List<CampaignOutboxEntry> unrelayed = campaignOutboxRepository.findByFeedSequenceIsNullOrderById(
+                        PageRequest.ofSize(RELAY_BATCH_SIZE));
+                long sequence = from;
+                for (CampaignOutboxEntry entry : unrelayed) {
+                    entry.setFeedSequence(++sequence);
+                }
+                return unrelayed;
+            });
+            relayed = entries.size();
+            if (relayed == 0) {
+                return;
+            }
+
+            List<ChangeFeedEntry> feedEntries = new ArrayList<>(relayed);
+            for (CampaignOutboxEntry entry : entries) {
+                feedEntries.add(toFeedEntry(entry));
+            }
+            // Raised before the entries become readable, so no reader gets a cursor past it.
+            lastSequence = from + relayed;
+            buffer.append(feedEntries);
+            listeners.forEach(Runnable::run);
+        } while (relayed == RELAY_BATCH_SIZE);
+    }
+
+    @Scheduled(fixedDelayString = "${app.change-feed.compaction-interval:1m}")
+    public void compact() {
+        if (!ready) {
+            return;
+        }
+        // Read first: entries relayed after this point are newer and survive the delete.
+        long last = lastSequence;
+        Integer deleted = transactionTemplate.execute(tx ->
+                campaignOutboxRepository.deleteRelayedBefore(Instant.now().minus(retention)));
+        Long min = campaignOutboxRepository.findMinFeedSequence();
+        firstAvailable = min != null ? min : last + 1;
+        if (deleted != null && deleted > 0) {
+            log.info("Compacted the campaign change feed: {} entries deleted, retained from {}", deleted, firstAvailable);
+        }
+    }
+
+    private ChangeFeedEntry toFeedEntry(CampaignOutboxEntry entry) {
+        CampaignChangeDTO change = new CampaignChangeDTO(entry.getFeedSequence(), entry.getType(),
+                entry.getCampaignId(), entry.getPayload(), entry.getChangedAt());
+        try {
+            return new ChangeFeedEntry(change, objectMapper.writeValueAsString(change));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException("Cannot serialize feed entry " + change.sequence(), e);
+        }
+    }
+}
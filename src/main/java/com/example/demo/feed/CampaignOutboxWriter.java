@@ -0,0 +1,65 @@
+package com.example.demo.feed;
+
+import com.example.demo.dtos.CampaignDTO;
+import com.example.demo.entities.CampaignOutboxEntry;
+import com.example.demo.events.CampaignChangedEvent;
+import com.example.demo.repositories.CampaignOutboxRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes committed {@link CampaignChangedEvent}s to the outbox table inside the transaction that
+ * published them, so a change is in the feed exactly when it is committed. Two kinds of change
+ * are not written from events: status flips accepted by the write-behind are published before
+ * any transaction and are written by its flush through {@link #writeAll}, in the transaction that
+ * stores them; billing deductions ({@code FUND_CHANGED}) would add a row per charged campaign on
+ * every flush and are left out of the feed.
+ */
+@Component
+public class CampaignOutboxWriter {
+
+    private final CampaignOutboxRepository campaignOutboxRepository;
+    private final ObjectMapper objectMapper;
+
+    public CampaignOutboxWriter(CampaignOutboxRepository campaignOutboxRepository, ObjectMapper objectMapper) {
+        this.campaignOutboxRepository = campaignOutboxRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    // No fallbackExecution: an event published outside a transaction has nothing to join.
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onCampaignChanged(CampaignChangedEvent event) {
+        if (event.type() == CampaignChangedEvent.Type.FUND_CHANGED) {
+            return;
+        }
+        CampaignDTO campaign = event.current() != null ? event.current() : event.previous();
+        campaignOutboxRepository.save(entry(event.type(), campaign));
+    }
+
+    /**
+     * Writes one entry per campaign in the caller's transaction, as one JDBC batch.
+     */
+    public void writeAll(CampaignChangedEvent.Type type, List<CampaignDTO> campaigns) {
+        List<CampaignOutboxEntry> entries = new ArrayList<>(campaigns.size());
+        for (CampaignDTO campaign : campaigns) {
+            entries.add(entry(type, campaign));
+        }
+        campaignOutboxRepository.saveAll(entries);
+    }
+
+    private CampaignOutboxEntry entry(CampaignChangedEvent.Type type, CampaignDTO campaign) {
+        try {
+            return new CampaignOutboxEntry(type, campaign.id(), objectMapper.writeValueAsString(campaign), Instant.now());
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException("Cannot serialize campaign " + campaign.id(), e);
+        }
+    }
+}
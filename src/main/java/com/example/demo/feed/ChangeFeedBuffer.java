@@ -0,0 +1,58 @@
+package com.example.demo.feed;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Ring buffer of the most recent feed entries; entry {@code s} lives in slot
+ * {@code s mod capacity}. Subscribers that keep up are served from here, older cursors from the
+ * outbox table.
+ */
+final class ChangeFeedBuffer {
+
+    private final ChangeFeedEntry[] entries;
+    private long last;
+    private int size;
+
+    ChangeFeedBuffer(int capacity) {
+        this.entries = new ChangeFeedEntry[capacity];
+    }
+
+    synchronized void reset(long lastSequence) {
+        Arrays.fill(entries, null);
+        last = lastSequence;
+        size = 0;
+    }
+
+    /**
+     * @param relayed entries continuing the sequence right after the last appended one
+     */
+    synchronized void append(List<ChangeFeedEntry> relayed) {
+        for (ChangeFeedEntry entry : relayed) {
+            entries[slot(entry.sequence())] = entry;
+            last = entry.sequence();
+            size = Math.min(size + 1, entries.length);
+        }
+    }
+
+    /**
+     * Up to {@code limit} entries after {@code after}, or {@code null} when some of them are no
+     * longer buffered.
+     */
+    synchronized List<ChangeFeedEntry> read(long after, int limit) {
+        if (after + 1 < last - size + 1) {
+            return null;
+        }
+        long to = Math.min(last, after + limit);
+        List<ChangeFeedEntry> result = new ArrayList<>((int) Math.max(to - after, 0));
+        for (long sequence = after + 1; sequence <= to; sequence++) {
+            result.add(entries[slot(sequence)]);
+        }
+        return result;
+    }
+
+    private int slot(long sequence) {
+        return (int) Math.floorMod(sequence, (long) entries.length);
+    }
+}
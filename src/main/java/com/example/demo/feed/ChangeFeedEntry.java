@@ -0,0 +1,13 @@
+package com.example.demo.feed;
+
+import com.example.demo.dtos.CampaignChangeDTO;
+
+/**
+ * A relayed change with its JSON, serialized once and sent as is to every stream subscriber.
+ */
+record ChangeFeedEntry(CampaignChangeDTO change, String json) {
+
+    long sequence() {
+        return change.sequence();
+    }
+}
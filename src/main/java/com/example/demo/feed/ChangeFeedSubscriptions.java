@@ -0,0 +1,172 @@
+package com.example.demo.feed;
+
+import com.example.demo.dtos.CampaignChangeDTO;
+import com.example.demo.dtos.CampaignChangePageDTO;
+import jakarta.annotation.PreDestroy;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Long-poll and Server-Sent Events subscribers of the {@link CampaignChangeFeed}. Neither holds a
+ * thread while waiting: a long poll is a parked {@link DeferredResult} completed by the relay, an
+ * SSE subscriber an {@link SseEmitter} that gets a virtual thread only while it has entries to
+ * send (one at a time per subscriber, so a slow client delays nobody else).
+ */
+@Component
+public class ChangeFeedSubscriptions {
+
+    private static final int STREAM_BATCH_SIZE = 500;
+
+    private final CampaignChangeFeed feed;
+    private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+    public ChangeFeedSubscriptions(CampaignChangeFeed feed) {
+        this.feed = feed;
+        feed.addListener(this::onAdvance);
+    }
+
+    public CampaignChangePageDTO poll(long after, int limit) {
+        if (feed.isExpired(after)) {
+            return new CampaignChangePageDTO(List.of(), feed.lastSequence(), true);
+        }
+        List<ChangeFeedEntry> entries = feed.read(after, limit);
+        List<CampaignChangeDTO> changes = new ArrayList<>(entries.size());
+        for (ChangeFeedEntry entry : entries) {
+            changes.add(entry.change());
+        }
+        long next = entries.isEmpty() ? after : entries.get(entries.size() - 1).sequence();
+        return new CampaignChangePageDTO(changes, next, false);
+    }
+
+    /**
+     * Completes with the first changes after the cursor, or an empty page after {@code timeout}.
+     */
+    public DeferredResult<CampaignChangePageDTO> longPoll(long after, int limit, Duration timeout) {
+        DeferredResult<CampaignChangePageDTO> result = new DeferredResult<>(timeout.toMillis(),
+                () -> new CampaignChangePageDTO(List.of(), after, false));
+        CampaignChangePageDTO page = poll(after, limit);
+        if (!page.changes().isEmpty() || page.reset() || timeout.isZero()) {
+            result.setResult(page);
+            return result;
+        }
+        Waiter waiter = new Waiter(after, limit, result);
+        waiters.add(waiter);
+        result.onCompletion(() -> waiters.remove(waiter));
+        // The relay may have advanced between the read and the registration.
+        if (feed.lastSequence() > after) {
+            complete(waiter);
+        }
+        return result;
+    }
+
+    /**
+     * Streams every change after the cursor as a {@code change} event with the sequence as its
+     * ID; an expired cursor gets a {@code reset} event carrying the current sequence and the
+     * stream ends.
+     */
+    public SseEmitter stream(long after, Duration timeout) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter, after);
+        subscribers.add(subscriber);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        wake(subscriber);
+        return emitter;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    private void onAdvance() {
+        long last = feed.lastSequence();
+        for (Waiter waiter : waiters) {
+            if (last > waiter.after) {
+                complete(waiter);
+            }
+        }
+        for (Subscriber subscriber : subscribers) {
+            if (last > subscriber.cursor) {
+                wake(subscriber);
+            }
+        }
+    }
+
+    private void complete(Waiter waiter) {
+        if (waiters.remove(waiter)) {
+            waiter.result.setResult(poll(waiter.after, waiter.limit));
+        }
+    }
+
+    private void wake(Subscriber subscriber) {
+        if (subscriber.sending.compareAndSet(false, true)) {
+            senders.execute(() -> send(subscriber));
+        }
+    }
+
+    private void send(Subscriber subscriber) {
+        SseEmitter emitter = subscriber.emitter;
+        try {
+            while (true) {
+                if (feed.isExpired(subscriber.cursor)) {
+                    emitter.send(SseEmitter.event().name("reset").data(feed.lastSequence()));
+                    emitter.complete();
+                    return;
+                }
+                List<ChangeFeedEntry> entries = feed.read(subscriber.cursor, STREAM_BATCH_SIZE);
+                if (entries.isEmpty()) {
+                    subscriber.sending.set(false);
+                    // Entries relayed after the read but before the flag was cleared found it still set.
+                    if (feed.lastSequence() > subscriber.cursor && subscriber.sending.compareAndSet(false, true)) {
+                        continue;
+                    }
+                    return;
+                }
+                for (ChangeFeedEntry entry : entries) {
+                    emitter.send(SseEmitter.event()
+                            .id(Long.toString(entry.sequence()))
+                            .name("change")
+                            .data(entry.json(), MediaType.APPLICATION_JSON));
+                    subscriber.cursor = entry.sequence();
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Client gone or emitter already completed.
+            subscribers.remove(subscriber);
+            emitter.completeWithError(e);
+        }
+    }
+
+    private record Waiter(long after, int limit, DeferredResult<CampaignChangePageDTO> result) {
+    }
+
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private volatile long cursor;
+
+        private Subscriber(SseEmitter emitter, long cursor) {
+            this.emitter = emitter;
+            this.cursor = cursor;
+        }
+    }
+}
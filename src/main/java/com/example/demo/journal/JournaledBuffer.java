@@ -0,0 +1,134 @@
+package com.example.demo.journal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+
+/**
+ * Per-ID values waiting to be written to the database, backed by a {@link SegmentedJournal}.
+ * Writers journal their records and update the pending values under a shared read lock;
+ * {@link #flush} takes the write lock to rotate the journal and swap the pending map as one step,
+ * so every drained value is in a sealed segment and vice versa. A failed write puts the drained
+ * values back ({@code requeue} merges them with values added since); after a successful one the
+ * sealed segments are deleted, and a failure to delete them is only logged, since re-queueing
+ * written values would apply them twice.
+ *
+ * @param <V> pending value per ID; the maps handed out are concurrent
+ */
+public class JournaledBuffer<V> implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(JournaledBuffer.class);
+
+    private final SegmentedJournal journal;
+    // (value added since the flush started, value of the failed flush) -> value to keep
+    private final BinaryOperator<V> requeue;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile Map<Long, V> pending = new ConcurrentHashMap<>();
+    private volatile Map<Long, V> flushing = Map.of();
+
+    public JournaledBuffer(SegmentedJournal journal, BinaryOperator<V> requeue) {
+        this.journal = journal;
+        this.requeue = requeue;
+    }
+
+    /**
+     * Writes the records to the journal (one write) and then applies {@code update} to the pending
+     * values; no flush can drain in between. With no records only the values are updated, e.g. to
+     * load what was recovered from the journal.
+     */
+    public void append(Collection<String> records, Consumer<Map<Long, V>> update) {
+        lock.readLock().lock();
+        try {
+            journal.append(records);
+            update.accept(pending);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Value not handed to a flush yet, or {@code null}.
+     */
+    public V pending(long id) {
+        return pending.get(id);
+    }
+
+    /**
+     * Value of the flush in progress, or {@code null}; it is kept until that flush has committed
+     * or put the value back.
+     */
+    public V flushing(long id) {
+        return flushing.get(id);
+    }
+
+    /**
+     * Drains the pending values and passes them, with the number of the sealed journal segment,
+     * to {@code writer}. The writer runs outside the lock and has to throw only when nothing was
+     * written.
+     *
+     * @return what the writer returned, or empty when nothing was pending (or it returned {@code null})
+     * @throws RuntimeException from the writer, after the values were put back
+     */
+    public <R> Optional<R> flush(Writer<V, R> writer) {
+        Map<Long, V> batch;
+        long sealedSegment;
+        lock.writeLock().lock();
+        try {
+            if (pending.isEmpty()) {
+                return Optional.empty();
+            }
+            sealedSegment = journal.rotate();
+            batch = pending;
+            flushing = batch;
+            pending = new ConcurrentHashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        R result;
+        try {
+            result = writer.write(batch, sealedSegment);
+        } catch (RuntimeException e) {
+            // The sealed segment stays, so the next flush's sealed segment also covers these values.
+            lock.readLock().lock();
+            try {
+                Map<Long, V> current = pending;
+                batch.forEach((id, value) -> current.merge(id, value, requeue));
+            } finally {
+                lock.readLock().unlock();
+            }
+            throw e;
+        } finally {
+            flushing = Map.of();
+        }
+
+        try {
+            journal.deleteUpTo(sealedSegment);
+        } catch (RuntimeException e) {
+            // Left behind, the segments are deleted together with the next flush's.
+            log.warn("Cannot delete flushed segments up to {} of journal {}", sealedSegment, journal.name(), e);
+        }
+        return Optional.ofNullable(result);
+    }
+
+    @Override
+    public void close() throws IOException {
+        journal.close();
+    }
+
+    @FunctionalInterface
+    public interface Writer<V, R> {
+
+        R write(Map<Long, V> batch, long sealedSegment);
+    }
+}
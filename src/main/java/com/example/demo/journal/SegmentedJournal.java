@@ -0,0 +1,234 @@
+package com.example.demo.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Local append-only journal of one-line text records, split into numbered segment files
+ * ({@code <name>-<segment>.journal}). Writers append to the active segment; a flusher
+ * {@link #rotate() rotates} to a new segment, writes what the sealed segments describe to the
+ * database and then {@link #deleteUpTo deletes} them. Segments still on disk at startup were never
+ * confirmed as flushed and are handed back by {@link #recover()}.
+ * <p>
+ * Every record is one {@code write} to the file, so it survives a crash of the process; segments
+ * are fsynced when sealed, so after a power loss at most the records since the last rotation are
+ * lost. A torn last line (no trailing newline) is ignored on recovery.
+ * <p>
+ * Replaying records that are not idempotent needs to know which segments already reached the
+ * database: the flusher can store the sealed segment number in the same transaction, open the
+ * journal with {@code firstSegment} past it (so numbering never restarts below a stored number)
+ * and replay only {@link #recoverAfter later} segments.
+ * <p>
+ * Segments only make sense against the database they were written for. A journal opened with an
+ * {@code epoch} (an ID stored with the database, e.g. next to the checkpoint) keeps it in
+ * {@code <name>.epoch} and discards the segments of any other epoch instead of recovering them,
+ * so a recreated schema never gets the records of the previous one.
+ */
+public class SegmentedJournal implements Closeable {
+
+    private static final String SUFFIX = ".journal";
+    private static final String EPOCH_SUFFIX = ".epoch";
+
+    private final Path directory;
+    private final String name;
+    private final List<Long> recoveredSegments;
+    private final int discardedSegments;
+    private long activeSegment;
+    private FileChannel channel;
+
+    public SegmentedJournal(Path directory, String name) {
+        this(directory, name, 1);
+    }
+
+    /**
+     * @param firstSegment lowest number the new active segment may get
+     */
+    public SegmentedJournal(Path directory, String name, long firstSegment) {
+        this(directory, name, null, firstSegment);
+    }
+
+    /**
+     * @param epoch        ID of the database the records are written to; {@code null} keeps every segment
+     * @param firstSegment lowest number the new active segment may get
+     */
+    public SegmentedJournal(Path directory, String name, String epoch, long firstSegment) {
+        this.directory = directory;
+        this.name = name;
+        try {
+            Files.createDirectories(directory);
+            this.discardedSegments = epoch != null ? discardOtherEpochs(epoch) : 0;
+            this.recoveredSegments = existingSegments();
+            long next = recoveredSegments.isEmpty() ? 1 : recoveredSegments.get(recoveredSegments.size() - 1) + 1;
+            this.activeSegment = Math.max(next, firstSegment);
+            this.channel = open(activeSegment);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open journal " + name + " in " + directory, e);
+        }
+    }
+
+    /**
+     * Records of the segments left by the previous run, oldest first. They stay on disk until a
+     * later {@link #deleteUpTo} covers them.
+     */
+    public List<String> recover() {
+        return recoverAfter(0);
+    }
+
+    /**
+     * Like {@link #recover()}, but only from the segments numbered above {@code segment}.
+     */
+    public List<String> recoverAfter(long segment) {
+        List<String> records = new ArrayList<>();
+        for (long recovered : recoveredSegments) {
+            if (recovered <= segment) {
+                continue;
+            }
+            try {
+                String content = Files.readString(segmentPath(recovered), StandardCharsets.UTF_8);
+                int end = content.lastIndexOf('\n');
+                if (end >= 0) {
+                    content.substring(0, end).lines().filter(line -> !line.isEmpty()).forEach(records::add);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read journal segment " + segmentPath(recovered), e);
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Deletes the segments returned by {@link #recover()}, once their records are in the database.
+     */
+    public synchronized void deleteRecovered() {
+        deleteUpTo(recoveredSegments.isEmpty() ? 0 : recoveredSegments.get(recoveredSegments.size() - 1));
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Number of segments deleted on open because they belonged to another epoch.
+     */
+    public int discardedSegments() {
+        return discardedSegments;
+    }
+
+    public void append(String record) {
+        write(record + '\n');
+    }
+
+    /**
+     * Appends the records with a single write instead of one per record.
+     */
+    public void append(Collection<String> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        StringBuilder lines = new StringBuilder();
+        for (String record : records) {
+            lines.append(record).append('\n');
+        }
+        write(lines.toString());
+    }
+
+    private synchronized void write(String lines) {
+        ByteBuffer buffer = ByteBuffer.wrap(lines.getBytes(StandardCharsets.UTF_8));
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot append to journal " + name, e);
+        }
+    }
+
+    /**
+     * Seals the active segment (fsync) and starts a new one.
+     *
+     * @return the number of the sealed segment, to pass to {@link #deleteUpTo} once flushed
+     */
+    public synchronized long rotate() {
+        try {
+            channel.force(false);
+            channel.close();
+            long sealed = activeSegment;
+            activeSegment++;
+            channel = open(activeSegment);
+            return sealed;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot rotate journal " + name, e);
+        }
+    }
+
+    /**
+     * Deletes every sealed segment up to and including {@code segment}.
+     */
+    public synchronized void deleteUpTo(long segment) {
+        try {
+            for (long existing : existingSegments()) {
+                if (existing <= segment && existing != activeSegment) {
+                    Files.deleteIfExists(segmentPath(existing));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot delete journal segments of " + name, e);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.force(false);
+        channel.close();
+    }
+
+    // Segments are deleted before the new epoch is stored, so a crash in between only repeats this.
+    private int discardOtherEpochs(String epoch) throws IOException {
+        Path epochPath = directory.resolve(name + EPOCH_SUFFIX);
+        if (Files.exists(epochPath) && Files.readString(epochPath, StandardCharsets.UTF_8).equals(epoch)) {
+            return 0;
+        }
+        List<Long> stale = existingSegments();
+        for (long segment : stale) {
+            Files.deleteIfExists(segmentPath(segment));
+        }
+        Path written = directory.resolve(name + EPOCH_SUFFIX + ".tmp");
+        Files.writeString(written, epoch, StandardCharsets.UTF_8);
+        Files.move(written, epochPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return stale.size();
+    }
+
+    private FileChannel open(long segment) throws IOException {
+        return FileChannel.open(segmentPath(segment),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private List<Long> existingSegments() throws IOException {
+        String prefix = name + "-";
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(file -> file.startsWith(prefix) && file.endsWith(SUFFIX))
+                    .map(file -> file.substring(prefix.length(), file.length() - SUFFIX.length()))
+                    .filter(segment -> !segment.isEmpty() && segment.chars().allMatch(Character::isDigit))
+                    .map(Long::parseLong)
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path segmentPath(long segment) {
+        return directory.resolve(String.format("%s-%020d%s", name, segment, SUFFIX));
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.demo.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records {@code app.repository.rows}: rows returned (or, for modifying queries, affected) by each
+ * Spring Data repository method. Latency of the same calls is already published by Spring Boot as
+ * {@code spring.data.repository.invocations}. Streams are not counted since consuming them is up to
+ * the caller.
+ */
+@Aspect
+@Component
+public class RepositoryRowCountAspect {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Class<?>, String> repositoryNames = new ConcurrentHashMap<>();
+
+    public RepositoryRowCountAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(* org.springframework.data.repository.Repository+.*(..))")
+    public Object countRows(ProceedingJoinPoint joinPoint) throws Throwable {
+        Object result = joinPoint.proceed();
+        long rows = rows(result);
+        if (rows >= 0) {
+            DistributionSummary.builder("app.repository.rows")
+                    .description("Rows returned or affected per repository call")
+                    .tag("repository", repositoryName(joinPoint.getThis()))
+                    .tag("method", joinPoint.getSignature().getName())
+                    .register(meterRegistry)
+                    .record(rows);
+        }
+        return result;
+    }
+
+    private static long rows(Object result) {
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Slice<?> slice) {
+            return slice.getNumberOfElements();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        if (result instanceof Integer affected) {
+            return affected;
+        }
+        return -1;
+    }
+
+    private String repositoryName(Object proxy) {
+        return repositoryNames.computeIfAbsent(proxy.getClass(), type -> {
+            for (Class<?> repositoryInterface : AopProxyUtils.proxiedUserInterfaces(proxy)) {
+                if (repositoryInterface.getPackageName().startsWith("com.example.demo")) {
+                    return repositoryInterface.getSimpleName();
+                }
+            }
+            return type.getSimpleName();
+        });
+    }
+}
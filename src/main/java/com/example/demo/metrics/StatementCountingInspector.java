@@ -0,0 +1,31 @@
+package com.example.demo.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread, so
+ * {@link StatementsPerRequestFilter} can report how many statements each request needed.
+ * Statements are passed through unchanged.
+ */
+public class StatementCountingInspector implements StatementInspector {
+
+    private static final ThreadLocal<int[]> COUNT = ThreadLocal.withInitial(() -> new int[1]);
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.get()[0]++;
+        return sql;
+    }
+
+    static void reset() {
+        COUNT.get()[0] = 0;
+    }
+
+    static int current() {
+        return COUNT.get()[0];
+    }
+
+    static void clear() {
+        COUNT.remove();
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.demo.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Records {@code app.http.statements}: SQL statements executed while handling a request, tagged with
+ * the matched URI pattern. Statements run after the response is handed to an async/streaming
+ * thread are not counted.
+ */
+@Component
+public class StatementsPerRequestFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry meterRegistry;
+
+    public StatementsPerRequestFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        StatementCountingInspector.reset();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            DistributionSummary.builder("app.http.statements")
+                    .description("SQL statements executed per HTTP request")
+                    .tag("method", request.getMethod())
+                    .tag("uri", pattern != null ? pattern.toString() : "UNKNOWN")
+                    .register(meterRegistry)
+                    .record(StatementCountingInspector.current());
+            StatementCountingInspector.clear();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.demo.repositories;
+
+import com.example.demo.entities.CampaignOutboxEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface CampaignOutboxRepository extends JpaRepository<CampaignOutboxEntry, Long> {
+
+    List<CampaignOutboxEntry> findByFeedSequenceIsNullOrderById(Pageable pageable);
+
+    List<CampaignOutboxEntry> findByFeedSequenceGreaterThanOrderByFeedSequence(long after, Pageable pageable);
+
+    @Query("SELECT MAX(e.feedSequence) FROM CampaignOutboxEntry e")
+    Long findMaxFeedSequence();
+
+    @Query("SELECT MIN(e.feedSequence) FROM CampaignOutboxEntry e")
+    Long findMinFeedSequence();
+
+    // Unrelayed entries are kept whatever their age.
+    @Modifying
+    @Query("DELETE FROM CampaignOutboxEntry e WHERE e.feedSequence IS NOT NULL AND e.changedAt < :cutoff")
+    int deleteRelayedBefore(@Param("cutoff") Instant cutoff);
+}
@@ -1,13 +1,28 @@
 package com.example.demo.repositories;
 
 import com.example.demo.entities.Campaign;
+import com.example.demo.repositories.projections.CampaignCityRef;
+import com.example.demo.repositories.projections.CampaignKeywordRef;
+import com.example.demo.repositories.projections.CampaignRow;
+import com.example.demo.search.GeoBoundingBox;
+import com.example.demo.search.GeoMath;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface CampaignRepository extends JpaRepository<Campaign,Long> {
@@ -15,60 +30,207 @@ public interface CampaignRepository extends JpaRepository<Campaign,Long> {
     Optional<Campaign> findByName(String name);
     Optional<Campaign> findById(long id);
 
+    // List reads hydrate everything CampaignDTO.fromEntity touches in a single query.
+    @EntityGraph(attributePaths = {"keywords", "city", "seller"})
     List<Campaign> findAllBySeller_Username(String username);
+
+    @EntityGraph(attributePaths = {"keywords", "city", "seller"})
     List<Campaign> findAll();
+
+    @EntityGraph(attributePaths = {"keywords", "city", "seller"})
     List<Campaign> findAllBySeller_UsernameAndCity_Name(String username, String cityName);
+
     Optional<Campaign> findBySeller_UsernameAndId(String username, long id);
+
+    @Query("SELECT c.version FROM Campaign c WHERE c.seller.username = :username AND c.id = :id")
+    Optional<Long> findVersionBySellerUsernameAndId(@Param("username") String username, @Param("id") long id);
+
+    // Row lock for writes that move money between the campaign fund and the seller balance.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Campaign c WHERE c.seller.username = :username AND c.id = :id")
+    Optional<Campaign> findBySellerUsernameAndIdForUpdate(@Param("username") String username, @Param("id") long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Campaign c WHERE c.id = :id")
+    Optional<Campaign> findByIdForUpdate(@Param("id") long id);
+
+    @EntityGraph(attributePaths = {"keywords", "city", "seller"})
     List<Campaign> findAllByCity_Name(String cityName);
 
+    @EntityGraph(attributePaths = {"keywords", "city", "seller"})
     List<Campaign> findAllBySeller_UsernameAndName(String sellerUsername, String name);
 
+    @EntityGraph(attributePaths = {"keywords", "city", "seller"})
+    List<Campaign> findAllByIdIn(Collection<Long> ids);
+
+    @Query("SELECT c.name FROM Campaign c WHERE c.name IN :names")
+    List<String> findExistingNames(@Param("names") Collection<String> names);
+
+    // Keyset pagination: only the next page of IDs is selected, then hydrated with findAllByIdIn.
+    @Query("SELECT c.id FROM Campaign c WHERE c.id > :afterId ORDER BY c.id")
+    List<Long> findIdsAfter(@Param("afterId") long afterId, Pageable pageable);
+
+    @Query("SELECT c.id FROM Campaign c WHERE c.city.name = :cityName AND c.id > :afterId ORDER BY c.id")
+    List<Long> findIdsByCityNameAfter(@Param("cityName") String cityName, @Param("afterId") long afterId,
+                                      Pageable pageable);
+
+    @Query("SELECT c.id FROM Campaign c WHERE c.seller.username = :username AND c.id > :afterId ORDER BY c.id")
+    List<Long> findIdsBySellerUsernameAfter(@Param("username") String username, @Param("afterId") long afterId,
+                                            Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT c FROM Campaign c JOIN FETCH c.city JOIN FETCH c.seller ORDER BY c.id")
+    Stream<Campaign> streamAll();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT c FROM Campaign c JOIN FETCH c.city JOIN FETCH c.seller WHERE c.city.name = :cityName ORDER BY c.id")
+    Stream<Campaign> streamAllByCityName(@Param("cityName") String cityName);
+
+    @Query("SELECT new com.example.demo.repositories.projections.CampaignKeywordRef(c.id, k.name) " +
+            "FROM Campaign c JOIN c.keywords k WHERE c.id IN :campaignIds")
+    List<CampaignKeywordRef> findKeywordRefsByCampaignIds(@Param("campaignIds") Collection<Long> campaignIds);
+
+    // Blokady wierszy dla operacji masowych; kolejność po id zapobiega zakleszczeniom. cityId < 0 = bez filtra miasta
+    @Query(value = """
+        SELECT c.id FROM campaign c
+        WHERE c.seller_id = :sellerId AND (:cityId < 0 OR c.city_id = :cityId)
+        ORDER BY c.id FOR UPDATE
+        """, nativeQuery = true)
+    List<Long> lockIdsBySeller(@Param("sellerId") long sellerId, @Param("cityId") long cityId);
+
     @Query(value = """
-        SELECT c.*
+        SELECT c.id FROM campaign c
+        WHERE c.seller_id = :sellerId AND (:cityId < 0 OR c.city_id = :cityId) AND c.id IN (:ids)
+        ORDER BY c.id FOR UPDATE
+        """, nativeQuery = true)
+    List<Long> lockIdsBySellerAndIdIn(@Param("sellerId") long sellerId, @Param("cityId") long cityId,
+                                      @Param("ids") Collection<Long> ids);
+
+    @Query(value = "SELECT c.id FROM campaign c WHERE c.id IN (:ids) ORDER BY c.id FOR UPDATE", nativeQuery = true)
+    List<Long> lockIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT new com.example.demo.repositories.projections.CampaignRow(" +
+            "c.id, c.name, c.price, c.fund, c.status, c.city.name, c.seller.username) FROM Campaign c " +
+            "WHERE c.id IN :ids ORDER BY c.id")
+    List<CampaignRow> findRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE Campaign c SET c.status = :status, c.version = c.version + 1 WHERE c.id IN :ids")
+    int updateStatusByIdIn(@Param("ids") Collection<Long> ids, @Param("status") boolean status);
+
+    // Tabela łącząca nie jest czyszczona przez masowe DELETE encji
+    @Modifying
+    @Query(value = "DELETE FROM campaign_keyword WHERE campaign_id IN (:ids)", nativeQuery = true)
+    int deleteKeywordLinksByCampaignIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM Campaign c WHERE c.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT new com.example.demo.repositories.projections.CampaignRow(" +
+            "c.id, c.name, c.price, c.fund, c.status, c.city.name, c.seller.username) FROM Campaign c ORDER BY c.id")
+    List<CampaignRow> findAllRows();
+
+    @Query("SELECT new com.example.demo.repositories.projections.CampaignKeywordRef(c.id, k.name) " +
+            "FROM Campaign c JOIN c.keywords k ORDER BY c.id")
+    List<CampaignKeywordRef> findAllKeywordRefs();
+
+    @Query("SELECT new com.example.demo.repositories.projections.CampaignCityRef(c.id, c.city.id) " +
+            "FROM Campaign c WHERE c.status = true")
+    List<CampaignCityRef> findActiveCampaignCityRefs();
+
+    @Query("SELECT new com.example.demo.repositories.projections.CampaignKeywordRef(c.id, k.name) " +
+            "FROM Campaign c JOIN c.keywords k WHERE c.status = true")
+    List<CampaignKeywordRef> findActiveCampaignKeywordRefs();
+
+    // Miasta w promieniu rozwiązuje CityDistanceMatrix, baza dostaje tylko listę ID (indeks na city_id)
+    @Query("SELECT c.id FROM Campaign c WHERE c.status = true AND c.city.id IN :cityIds")
+    List<Long> findActiveCampaignIdsByCityIdIn(@Param("cityIds") Collection<Long> cityIds);
+
+    @Query("SELECT DISTINCT c.id FROM Campaign c JOIN c.keywords k " +
+            "WHERE c.status = true AND c.city.id IN :cityIds AND k.name IN :keywords")
+    List<Long> findActiveCampaignIdsByCityIdInAndKeywords(@Param("cityIds") Collection<Long> cityIds,
+                                                          @Param("keywords") Collection<String> keywords);
+
+    @Query(value = """
+        SELECT c.id
         FROM campaign c
         JOIN city target_city ON c.city_id = target_city.id
         WHERE c.status = true -- Tylko aktywne kampanie
+        AND target_city.latitude BETWEEN :minLat AND :maxLat -- Prostokąt ograniczający (indeks)
+        AND target_city.longitude BETWEEN :minLon AND :maxLon
         AND (
             6371 * acos(
                 LEAST(1.0, GREATEST(-1.0, -- Przycinanie wartości do przedziału [-1, 1]
-                    cos(radians(:searchLat)) * cos(radians(target_city.latitude)) *
-                    cos(radians(target_city.longitude - :searchLon)) +
-                    sin(radians(:searchLat)) * sin(radians(target_city.latitude))
+                    :searchCosLat * target_city.cos_latitude *
+                    cos(target_city.longitude_rad - :searchLonRad) +
+                    :searchSinLat * target_city.sin_latitude
                 ))
             )
         ) <= :searchRadius -- Porównujemy odległość do PROMIENIA WYSZUKIWANIA
         """,
             nativeQuery = true)
-    List<Campaign> findActiveCampaignsNearSearchLocation(
-            @Param("searchLat") double searchLat,
-            @Param("searchLon") double searchLon,
-            @Param("searchRadius") double searchRadius
+    List<Long> findActiveCampaignIdsNearSearchLocation(
+            @Param("searchSinLat") double searchSinLat,
+            @Param("searchCosLat") double searchCosLat,
+            @Param("searchLonRad") double searchLonRad,
+            @Param("searchRadius") double searchRadius,
+            @Param("minLat") double minLat,
+            @Param("maxLat") double maxLat,
+            @Param("minLon") double minLon,
+            @Param("maxLon") double maxLon
     );
 
+    default List<Long> findActiveCampaignIdsNearSearchLocation(double searchLat, double searchLon, double searchRadius) {
+        GeoBoundingBox box = GeoMath.boundingBox(searchLat, searchLon, searchRadius);
+        double searchLatRad = Math.toRadians(searchLat);
+        return findActiveCampaignIdsNearSearchLocation(
+                Math.sin(searchLatRad), Math.cos(searchLatRad), Math.toRadians(searchLon), searchRadius,
+                box.minLat(), box.maxLat(), box.minLon(), box.maxLon()
+        );
+    }
+
     // Opcjonalnie, wersja z filtrowaniem po słowach kluczowych
     @Query(value = """
-        SELECT DISTINCT c.*
+        SELECT DISTINCT c.id
         FROM campaign c
         JOIN campaign_keyword ck ON c.id = ck.campaign_id
         JOIN keyword k ON ck.keyword_id = k.id
         JOIN city target_city ON c.city_id = target_city.id
         WHERE c.status = true
+        AND target_city.latitude BETWEEN :minLat AND :maxLat
+        AND target_city.longitude BETWEEN :minLon AND :maxLon
         AND (
             6371 * acos(
                 LEAST(1.0, GREATEST(-1.0, -- Przycinanie wartości do przedziału [-1, 1]
-                    cos(radians(:searchLat)) * cos(radians(target_city.latitude)) *
-                    cos(radians(target_city.longitude - :searchLon)) +
-                    sin(radians(:searchLat)) * sin(radians(target_city.latitude))
+                    :searchCosLat * target_city.cos_latitude *
+                    cos(target_city.longitude_rad - :searchLonRad) +
+                    :searchSinLat * target_city.sin_latitude
                 ))
             )
         ) <= :searchRadius
         AND k.name IN :keywords
         """,
             nativeQuery = true)
-    List<Campaign> findActiveCampaignsNearSearchLocationByKeywords(
-            @Param("searchLat") double searchLat,
-            @Param("searchLon") double searchLon,
+    List<Long> findActiveCampaignIdsNearSearchLocationByKeywords(
+            @Param("searchSinLat") double searchSinLat,
+            @Param("searchCosLat") double searchCosLat,
+            @Param("searchLonRad") double searchLonRad,
             @Param("searchRadius") double searchRadius,
+            @Param("minLat") double minLat,
+            @Param("maxLat") double maxLat,
+            @Param("minLon") double minLon,
+            @Param("maxLon") double maxLon,
             @Param("keywords") List<String> keywords
     );
+
+    default List<Long> findActiveCampaignIdsNearSearchLocationByKeywords(double searchLat, double searchLon,
+                                                                         double searchRadius, List<String> keywords) {
+        GeoBoundingBox box = GeoMath.boundingBox(searchLat, searchLon, searchRadius);
+        double searchLatRad = Math.toRadians(searchLat);
+        return findActiveCampaignIdsNearSearchLocationByKeywords(
+                Math.sin(searchLatRad), Math.cos(searchLatRad), Math.toRadians(searchLon), searchRadius,
+                box.minLat(), box.maxLat(), box.minLon(), box.maxLon(), keywords
+        );
+    }
 }
@@ -0,0 +1,16 @@
+package com.example.demo.repositories;
+
+import com.example.demo.entities.JournalCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.UUID;
+
+public interface JournalCheckpointRepository extends JpaRepository<JournalCheckpoint, String> {
+
+    /**
+     * The checkpoint of the journal; the first call against a schema starts it with a new epoch.
+     */
+    default JournalCheckpoint findOrStart(String journal) {
+        return findById(journal).orElseGet(() -> save(new JournalCheckpoint(journal, UUID.randomUUID().toString(), 0)));
+    }
+}
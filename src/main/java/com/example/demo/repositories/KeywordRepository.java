@@ -1,7 +1,9 @@
 package com.example.demo.repositories;
 
 import com.example.demo.entities.Keyword;
+import com.example.demo.repositories.projections.KeywordUsage;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.Collection;
@@ -17,4 +19,8 @@ public interface KeywordRepository extends JpaRepository<Keyword, Long> {
 
     Optional<Keyword> findByName(String name);
 
+    @Query("SELECT new com.example.demo.repositories.projections.KeywordUsage(k.name, COUNT(c)) " +
+            "FROM Keyword k LEFT JOIN k.campaigns c GROUP BY k.name")
+    List<KeywordUsage> findUsage();
+
 }
\ No newline at end of file
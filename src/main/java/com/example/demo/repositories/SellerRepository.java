@@ -1,10 +1,19 @@
 package com.example.demo.repositories;
 
+import com.example.demo.dtos.SellerSummaryDTO;
 import com.example.demo.entities.Seller;
+import com.example.demo.repositories.projections.CampaignSellerRef;
+import com.example.demo.repositories.projections.SellerCredentials;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,6 +26,31 @@ public interface SellerRepository extends JpaRepository<Seller,Long> {
     Optional<Seller> findByUsername(String username);
 
 
+    // Auth-only lookup: no campaigns, no balance.
+    @Query("SELECT new com.example.demo.repositories.projections.SellerCredentials(s.username, s.password, s.role) " +
+            "FROM Seller s WHERE s.username = :username")
+    Optional<SellerCredentials> findCredentialsByUsername(@Param("username") String username);
+
+    // Lean lookups for hot paths that don't need the campaigns collection.
+    @Query("SELECT s.id FROM Seller s WHERE s.username = :username")
+    Optional<Long> findIdByUsername(@Param("username") String username);
+
+    @Query("SELECT new com.example.demo.dtos.SellerSummaryDTO(s.id, s.username, s.email, s.balance, COUNT(c)) " +
+            "FROM Seller s LEFT JOIN s.campaigns c WHERE s.username = :username " +
+            "GROUP BY s.id, s.username, s.email, s.balance")
+    Optional<SellerSummaryDTO> findSummaryByUsername(@Param("username") String username);
+
+    @Query(value = "SELECT new com.example.demo.dtos.SellerSummaryDTO(s.id, s.username, s.email, s.balance, COUNT(c)) " +
+            "FROM Seller s LEFT JOIN s.campaigns c " +
+            "GROUP BY s.id, s.username, s.email, s.balance",
+            countQuery = "SELECT COUNT(s) FROM Seller s")
+    Page<SellerSummaryDTO> findSummaries(Pageable pageable);
+
+    // Campaign names for SellerDTO without hydrating the campaigns.
+    @Query("SELECT new com.example.demo.repositories.projections.CampaignSellerRef(c.seller.id, c.name) " +
+            "FROM Campaign c WHERE c.seller.id IN :sellerIds ORDER BY c.id")
+    List<CampaignSellerRef> findCampaignNamesBySellerIdIn(@Param("sellerIds") Collection<Long> sellerIds);
+
     boolean existsByEmail(String email);
     boolean existsByUsername(String username);
 
@@ -24,4 +58,16 @@ public interface SellerRepository extends JpaRepository<Seller,Long> {
 
     @EntityGraph(attributePaths = {"campaigns"})
     List<Seller> findAll();
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Seller s SET s.balance = s.balance - :amount, s.version = s.version + 1 WHERE s.id = :id AND s.balance >= :amount")
+    int withdraw(@Param("id") long id, @Param("amount") double amount);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Seller s SET s.balance = s.balance + :amount, s.version = s.version + 1 WHERE s.id = :id")
+    int deposit(@Param("id") long id, @Param("amount") double amount);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Seller s SET s.balance = s.balance + :amount, s.version = s.version + 1 WHERE s.username = :username")
+    int depositByUsername(@Param("username") String username, @Param("amount") double amount);
 }
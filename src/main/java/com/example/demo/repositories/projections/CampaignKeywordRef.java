@@ -0,0 +1,4 @@
+package com.example.demo.repositories.projections;
+
+public record CampaignKeywordRef(Long campaignId, String keywordName) {
+}
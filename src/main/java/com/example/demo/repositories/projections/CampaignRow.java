@@ -0,0 +1,5 @@
+package com.example.demo.repositories.projections;
+
+public record CampaignRow(Long id, String name, double price, double fund, boolean status,
+                          String cityName, String sellerName) {
+}
@@ -0,0 +1,4 @@
+package com.example.demo.repositories.projections;
+
+public record SellerCredentials(String username, String password, String role) {
+}
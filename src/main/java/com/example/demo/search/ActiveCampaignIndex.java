@@ -0,0 +1,287 @@
+package com.example.demo.search;
+
+import com.example.demo.dtos.CampaignDTO;
+import com.example.demo.entities.City;
+import com.example.demo.events.CampaignChangedEvent;
+import com.example.demo.events.CityCatalogRefreshedEvent;
+import com.example.demo.repositories.CampaignRepository;
+import com.example.demo.repositories.projections.CampaignCityRef;
+import com.example.demo.repositories.projections.CampaignKeywordRef;
+import com.example.demo.services.CityCatalog;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory index of active campaigns. The {@link CityDistanceMatrix} (or, for coordinates that
+ * are not a known city, a k-d tree) resolves the cities inside a search radius; every city and every keyword then owns a compressed bitmap of active campaign
+ * IDs, so a location (+ keyword) search is a handful of bitmap ORs/ANDs followed by a fetch by ID.
+ * Built once the application is ready and kept in sync from {@link CampaignChangedEvent}s after the
+ * writing transaction commits.
+ */
+@Component
+public class ActiveCampaignIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ActiveCampaignIndex.class);
+
+    private final CityCatalog cityCatalog;
+    private final CampaignRepository campaignRepository;
+    private final CityDistanceMatrix cityDistanceMatrix;
+
+    // RoaringBitmap is not thread-safe: searches share the read lock, event updates take the write lock.
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, RoaringBitmap> campaignsByCity = new HashMap<>();
+    private final Map<String, RoaringBitmap> campaignsByKeyword = new HashMap<>();
+    private final Map<Integer, Long> cityByCampaign = new HashMap<>();
+    private final Map<Integer, Collection<String>> keywordsByCampaign = new HashMap<>();
+
+    private CityKdTree cityTree;
+    private volatile boolean ready;
+
+    public ActiveCampaignIndex(CityCatalog cityCatalog, CampaignRepository campaignRepository,
+                               CityDistanceMatrix cityDistanceMatrix) {
+        this.cityCatalog = cityCatalog;
+        this.campaignRepository = campaignRepository;
+        this.cityDistanceMatrix = cityDistanceMatrix;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            List<City> cities = cityCatalog.cities();
+            cityTree = CityKdTree.build(cities);
+
+            campaignsByCity.clear();
+            campaignsByKeyword.clear();
+            cityByCampaign.clear();
+            keywordsByCampaign.clear();
+
+            for (CampaignCityRef ref : campaignRepository.findActiveCampaignCityRefs()) {
+                int campaignId = Math.toIntExact(ref.campaignId());
+                campaignsByCity.computeIfAbsent(ref.cityId(), id -> new RoaringBitmap()).add(campaignId);
+                cityByCampaign.put(campaignId, ref.cityId());
+            }
+            for (CampaignKeywordRef ref : campaignRepository.findActiveCampaignKeywordRefs()) {
+                int campaignId = Math.toIntExact(ref.campaignId());
+                campaignsByKeyword.computeIfAbsent(ref.keywordName(), name -> new RoaringBitmap()).add(campaignId);
+                keywordsByCampaign.computeIfAbsent(campaignId, id -> new ArrayList<>()).add(ref.keywordName());
+            }
+            campaignsByCity.values().forEach(RoaringBitmap::runOptimize);
+            campaignsByKeyword.values().forEach(RoaringBitmap::runOptimize);
+
+            ready = true;
+            log.info("Active campaign index built: {} cities, {} keywords, {} active campaigns",
+                    cities.size(), campaignsByKeyword.size(), cityByCampaign.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void onCityCatalogRefreshed(CityCatalogRefreshedEvent event) {
+        rebuild();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public List<Long> findCampaignIdsNearCity(City city, double radiusKm) {
+        lock.readLock().lock();
+        try {
+            return toIds(campaignsNearCity(city, radiusKm));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Long> findCampaignIdsNearCity(City city, double radiusKm, Collection<String> keywords) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap withKeywords = campaignsWithAnyKeyword(keywords);
+            if (withKeywords.isEmpty()) {
+                return List.of();
+            }
+            return toIds(RoaringBitmap.and(withKeywords, campaignsNearCity(city, radiusKm)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Long> findCampaignIdsNear(double lat, double lon, double radiusKm) {
+        lock.readLock().lock();
+        try {
+            return toIds(campaignsNear(lat, lon, radiusKm));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Long> findCampaignIdsNear(double lat, double lon, double radiusKm, Collection<String> keywords) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap withKeywords = campaignsWithAnyKeyword(keywords);
+            if (withKeywords.isEmpty()) {
+                return List.of();
+            }
+            return toIds(RoaringBitmap.and(withKeywords, campaignsNear(lat, lon, radiusKm)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Calls {@code consumer} with every active campaign within {@code radiusKm} of the city and the
+     * distance to its city, without collecting them first; {@code keywords} (if not empty) keeps
+     * only campaigns with at least one of them. Runs under the read lock, so the consumer must be
+     * quick and must not call back into the index.
+     */
+    public void forEachCampaignNearCity(City city, double radiusKm, Collection<String> keywords,
+                                        CampaignDistanceConsumer consumer) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap withKeywords = keywords == null || keywords.isEmpty() ? null : campaignsWithAnyKeyword(keywords);
+            if (withKeywords != null && withKeywords.isEmpty()) {
+                return;
+            }
+            forEachCityNear(city, radiusKm, (cityId, distanceKm) -> {
+                RoaringBitmap campaignIds = campaignsByCity.get(cityId);
+                if (campaignIds == null) {
+                    return;
+                }
+                campaignIds.forEach((int campaignId) -> {
+                    if (withKeywords == null || withKeywords.contains(campaignId)) {
+                        consumer.accept(campaignId, distanceKm);
+                    }
+                });
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private RoaringBitmap campaignsWithAnyKeyword(Collection<String> keywords) {
+        RoaringBitmap withKeywords = new RoaringBitmap();
+        for (String keyword : keywords) {
+            RoaringBitmap campaignIds = campaignsByKeyword.get(keyword);
+            if (campaignIds != null) {
+                withKeywords.or(campaignIds);
+            }
+        }
+        return withKeywords;
+    }
+
+    private RoaringBitmap campaignsNearCity(City city, double radiusKm) {
+        RoaringBitmap result = new RoaringBitmap();
+        forEachCityNear(city, radiusKm, (cityId, distanceKm) -> {
+            RoaringBitmap campaignIds = campaignsByCity.get(cityId);
+            if (campaignIds != null) {
+                result.or(campaignIds);
+            }
+        });
+        return result;
+    }
+
+    private void forEachCityNear(City city, double radiusKm, CityDistanceConsumer action) {
+        if (!cityDistanceMatrix.forEachCityWithin(city.getId(), radiusKm, action)) {
+            // A city added after the matrix was built: fall back to the coordinates.
+            cityTree.forEachWithin(city.getLatitude(), city.getLongitude(), radiusKm, action);
+        }
+    }
+
+    private RoaringBitmap campaignsNear(double lat, double lon, double radiusKm) {
+        RoaringBitmap result = new RoaringBitmap();
+        cityTree.forEachWithin(lat, lon, radiusKm, (cityId, distanceKm) -> {
+            RoaringBitmap campaignIds = campaignsByCity.get(cityId);
+            if (campaignIds != null) {
+                result.or(campaignIds);
+            }
+        });
+        return result;
+    }
+
+    private static List<Long> toIds(RoaringBitmap bitmap) {
+        List<Long> ids = new ArrayList<>(bitmap.getCardinality());
+        bitmap.forEach((int id) -> ids.add((long) id));
+        return ids;
+    }
+
+    // Right after the snapshot store and ahead of SearchResultCache: a search that misses the cache
+    // between the two must already find the change here.
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCampaignChanged(CampaignChangedEvent event) {
+        if (event.type() == CampaignChangedEvent.Type.FUND_CHANGED) {
+            return;
+        }
+
+        CampaignDTO current = event.current();
+        boolean unknownCity = current != null && current.status() && cityCatalog.indexOf(current.city()) < 0;
+        lock.writeLock().lock();
+        try {
+            // Checked under the lock: an event delivered while a rebuild runs waits for it and is
+            // applied on top. Before the first build there is nothing to patch - it runs after this
+            // commit and sees the change.
+            if (!ready) {
+                return;
+            }
+            if (!unknownCity) {
+                int campaignId = Math.toIntExact(event.campaignId());
+                remove(campaignId);
+                if (current != null && current.status()) {
+                    add(campaignId, cityCatalog.idAt(cityCatalog.indexOf(current.city())), current.keywordsNames());
+                }
+                return;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        // A city the catalog has never seen - reloading it rebuilds this index as well.
+        cityCatalog.refresh();
+    }
+
+    private void add(int campaignId, long cityId, Collection<String> keywords) {
+        campaignsByCity.computeIfAbsent(cityId, id -> new RoaringBitmap()).add(campaignId);
+        cityByCampaign.put(campaignId, cityId);
+        for (String keyword : keywords) {
+            campaignsByKeyword.computeIfAbsent(keyword, name -> new RoaringBitmap()).add(campaignId);
+        }
+        keywordsByCampaign.put(campaignId, List.copyOf(keywords));
+    }
+
+    private void remove(int campaignId) {
+        Long cityId = cityByCampaign.remove(campaignId);
+        if (cityId != null) {
+            campaignsByCity.get(cityId).remove(campaignId);
+        }
+        Collection<String> keywords = keywordsByCampaign.remove(campaignId);
+        if (keywords != null) {
+            for (String keyword : keywords) {
+                campaignsByKeyword.get(keyword).remove(campaignId);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface CampaignDistanceConsumer {
+
+        void accept(int campaignId, double distanceKm);
+    }
+}
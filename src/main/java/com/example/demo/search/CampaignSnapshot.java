@@ -0,0 +1,385 @@
+package com.example.demo.search;
+
+import com.example.demo.dtos.CampaignDTO;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedMap;
+
+/**
+ * Columnar copy of every campaign, ordered by ID: primitive arrays for the numbers and
+ * references into interned string tables (cities, sellers, keywords) whose values are kept as
+ * Jackson {@link SerializedString}s, so each name is escaped and UTF-8 encoded once and then
+ * copied straight into every response. Serializing a snapshot allocates no entities or DTOs.
+ * <p>
+ * {@link #patch} writes changes of existing campaigns that keep their city, seller and keywords
+ * (fund, status, price, name - billing and pause/resume) into the rows in place, so a reader may
+ * see such a change half applied across columns, never a torn row order. Inserts, deletions and
+ * other changes produce a new generation (copy-on-write merge of the batch); string table entries
+ * of deleted campaigns stay until the next full rebuild.
+ */
+public final class CampaignSnapshot {
+
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString NAME = new SerializedString("name");
+    private static final SerializedString KEYWORDS_NAMES = new SerializedString("keywordsNames");
+    private static final SerializedString PRICE = new SerializedString("price");
+    private static final SerializedString FUND = new SerializedString("fund");
+    private static final SerializedString STATUS = new SerializedString("status");
+    private static final SerializedString CITY = new SerializedString("city");
+    private static final SerializedString SELLER_NAME = new SerializedString("sellerName");
+
+    // The column arrays are taken over from the builder and may be longer than size.
+    private final int size;
+    private final long[] ids;
+    private final SerializedString[] names;
+    private final double[] prices;
+    private final double[] funds;
+    private final boolean[] statuses;
+    private final int[] cityRefs;
+    private final int[] sellerRefs;
+    // Keywords of campaign i are keywordRefs[keywordStarts[i] .. keywordStarts[i + 1]).
+    private final int[] keywordStarts;
+    private final int[] keywordRefs;
+    private final StringTable cities;
+    private final StringTable sellers;
+    private final StringTable keywords;
+
+    private CampaignSnapshot(Builder builder) {
+        this.size = builder.size;
+        this.ids = builder.ids;
+        this.names = builder.names;
+        this.prices = builder.prices;
+        this.funds = builder.funds;
+        this.statuses = builder.statuses;
+        this.cityRefs = builder.cityRefs;
+        this.sellerRefs = builder.sellerRefs;
+        this.keywordStarts = builder.keywordStarts;
+        this.keywordRefs = builder.keywordRefs;
+        this.cities = builder.cities.build();
+        this.sellers = builder.sellers.build();
+        this.keywords = builder.keywords.build();
+    }
+
+    public static Builder builder(int expectedSize) {
+        return new Builder(null, expectedSize);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Applies the changes; a {@code null} value removes the campaign. Returns this snapshot when
+     * every change could be written in place, otherwise a new generation. Calls must not overlap.
+     */
+    public CampaignSnapshot patch(SortedMap<Long, CampaignDTO> changes) {
+        if (patchableInPlace(changes)) {
+            for (CampaignDTO campaign : changes.values()) {
+                int row = rowOf(campaign.id());
+                if (!names[row].getValue().equals(campaign.name())) {
+                    names[row] = new SerializedString(campaign.name());
+                }
+                prices[row] = campaign.price();
+                funds[row] = campaign.fund();
+                statuses[row] = campaign.status();
+            }
+            return this;
+        }
+
+        Builder builder = new Builder(this, size + changes.size());
+        int position = 0;
+        for (Map.Entry<Long, CampaignDTO> change : changes.entrySet()) {
+            long id = change.getKey();
+            while (position < size && ids[position] < id) {
+                builder.copy(this, position++);
+            }
+            if (position < size && ids[position] == id) {
+                position++;
+            }
+            if (change.getValue() != null) {
+                builder.add(change.getValue());
+            }
+        }
+        while (position < size) {
+            builder.copy(this, position++);
+        }
+        return builder.build();
+    }
+
+    // Every change keeps an existing row and the string table references of that row.
+    private boolean patchableInPlace(SortedMap<Long, CampaignDTO> changes) {
+        for (Map.Entry<Long, CampaignDTO> change : changes.entrySet()) {
+            CampaignDTO campaign = change.getValue();
+            int row = rowOf(change.getKey());
+            if (campaign == null || row < 0
+                    || !cities.value(cityRefs[row]).equals(campaign.city())
+                    || !sellers.value(sellerRefs[row]).equals(campaign.sellerName())
+                    || !keywordsAt(row).equals(campaign.keywordsNames())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void writeAll(JsonGenerator generator) throws IOException {
+        generator.writeStartArray();
+        for (int i = 0; i < size; i++) {
+            writeCampaign(generator, i);
+        }
+        generator.writeEndArray();
+    }
+
+    public void writeByCity(String cityName, JsonGenerator generator) throws IOException {
+        int cityRef = cities.indexOf(cityName);
+        generator.writeStartArray();
+        if (cityRef >= 0) {
+            for (int i = 0; i < size; i++) {
+                if (cityRefs[i] == cityRef) {
+                    writeCampaign(generator, i);
+                }
+            }
+        }
+        generator.writeEndArray();
+    }
+
+    public Optional<CampaignDTO> find(long campaignId) {
+        int position = rowOf(campaignId);
+        return position >= 0 ? Optional.of(toDto(position)) : Optional.empty();
+    }
+
+    /**
+     * Active campaigns among the given IDs, in the order asked for; unknown IDs are skipped.
+     */
+    public List<CampaignDTO> findActive(Collection<Long> campaignIds) {
+        List<CampaignDTO> campaigns = new ArrayList<>(campaignIds.size());
+        for (Long campaignId : campaignIds) {
+            int position = rowOf(campaignId);
+            if (position >= 0 && statuses[position]) {
+                campaigns.add(toDto(position));
+            }
+        }
+        return campaigns;
+    }
+
+    /**
+     * Row of the campaign in this generation, negative when it is not in it. Rows run from 0 to
+     * {@code size() - 1} in ID order and let hot loops read single columns without building a DTO;
+     * they are only valid for the generation that returned them.
+     */
+    public int rowOf(long campaignId) {
+        return Arrays.binarySearch(ids, 0, size, campaignId);
+    }
+
+    public long idAt(int row) {
+        return ids[row];
+    }
+
+    public double priceAt(int row) {
+        return prices[row];
+    }
+
+    public double fundAt(int row) {
+        return funds[row];
+    }
+
+    public boolean isActiveAt(int row) {
+        return statuses[row];
+    }
+
+    public CampaignDTO campaignAt(int row) {
+        return toDto(row);
+    }
+
+    // Same properties, in the same order, as Jackson writes for CampaignDTO.
+    private void writeCampaign(JsonGenerator generator, int i) throws IOException {
+        generator.writeStartObject();
+        generator.writeFieldName(ID);
+        generator.writeNumber(ids[i]);
+        generator.writeFieldName(NAME);
+        generator.writeString(names[i]);
+        generator.writeFieldName(KEYWORDS_NAMES);
+        generator.writeStartArray();
+        for (int k = keywordStarts[i]; k < keywordStarts[i + 1]; k++) {
+            generator.writeString(keywords.serialized(keywordRefs[k]));
+        }
+        generator.writeEndArray();
+        generator.writeFieldName(PRICE);
+        generator.writeNumber(prices[i]);
+        generator.writeFieldName(FUND);
+        generator.writeNumber(funds[i]);
+        generator.writeFieldName(STATUS);
+        generator.writeBoolean(statuses[i]);
+        generator.writeFieldName(CITY);
+        generator.writeString(cities.serialized(cityRefs[i]));
+        generator.writeFieldName(SELLER_NAME);
+        generator.writeString(sellers.serialized(sellerRefs[i]));
+        generator.writeEndObject();
+    }
+
+    private CampaignDTO toDto(int i) {
+        return new CampaignDTO(ids[i], names[i].getValue(), keywordsAt(i), prices[i], funds[i], statuses[i],
+                cities.value(cityRefs[i]), sellers.value(sellerRefs[i]));
+    }
+
+    private Set<String> keywordsAt(int i) {
+        Set<String> keywordsNames = new HashSet<>();
+        for (int k = keywordStarts[i]; k < keywordStarts[i + 1]; k++) {
+            keywordsNames.add(keywords.value(keywordRefs[k]));
+        }
+        return keywordsNames;
+    }
+
+    /**
+     * Appends campaigns in ascending ID order. {@link #build()} hands the arrays to the snapshot,
+     * so a builder is used for one snapshot only.
+     */
+    public static final class Builder {
+
+        private long[] ids;
+        private SerializedString[] names;
+        private double[] prices;
+        private double[] funds;
+        private boolean[] statuses;
+        private int[] cityRefs;
+        private int[] sellerRefs;
+        private int[] keywordStarts;
+        private int[] keywordRefs;
+        private int size;
+        private final StringTable.Builder cities;
+        private final StringTable.Builder sellers;
+        private final StringTable.Builder keywords;
+
+        // Starting from a base snapshot keeps its table indexes valid, so rows can be copied as is.
+        private Builder(CampaignSnapshot base, int expectedSize) {
+            int capacity = Math.max(expectedSize, 16);
+            ids = new long[capacity];
+            names = new SerializedString[capacity];
+            prices = new double[capacity];
+            funds = new double[capacity];
+            statuses = new boolean[capacity];
+            cityRefs = new int[capacity];
+            sellerRefs = new int[capacity];
+            keywordStarts = new int[capacity + 1];
+            keywordRefs = new int[base != null ? Math.max(base.keywordStarts[base.size], 16) : capacity];
+            cities = new StringTable.Builder(base != null ? base.cities : null);
+            sellers = new StringTable.Builder(base != null ? base.sellers : null);
+            keywords = new StringTable.Builder(base != null ? base.keywords : null);
+        }
+
+        public Builder add(long id, String name, double price, double fund, boolean status, String city,
+                           String seller, Collection<String> keywordsNames) {
+            int i = nextRow(keywordsNames.size());
+            ids[i] = id;
+            names[i] = new SerializedString(name);
+            prices[i] = price;
+            funds[i] = fund;
+            statuses[i] = status;
+            cityRefs[i] = cities.intern(city);
+            sellerRefs[i] = sellers.intern(seller);
+            int k = keywordStarts[i];
+            for (String keyword : keywordsNames) {
+                keywordRefs[k++] = keywords.intern(keyword);
+            }
+            keywordStarts[i + 1] = k;
+            return this;
+        }
+
+        public Builder add(CampaignDTO campaign) {
+            return add(campaign.id(), campaign.name(), campaign.price(), campaign.fund(), campaign.status(),
+                    campaign.city(), campaign.sellerName(), campaign.keywordsNames());
+        }
+
+        private void copy(CampaignSnapshot base, int position) {
+            int keywordCount = base.keywordStarts[position + 1] - base.keywordStarts[position];
+            int i = nextRow(keywordCount);
+            ids[i] = base.ids[position];
+            names[i] = base.names[position];
+            prices[i] = base.prices[position];
+            funds[i] = base.funds[position];
+            statuses[i] = base.statuses[position];
+            cityRefs[i] = base.cityRefs[position];
+            sellerRefs[i] = base.sellerRefs[position];
+            System.arraycopy(base.keywordRefs, base.keywordStarts[position], keywordRefs, keywordStarts[i], keywordCount);
+            keywordStarts[i + 1] = keywordStarts[i] + keywordCount;
+        }
+
+        private int nextRow(int keywordCount) {
+            if (size == ids.length) {
+                int capacity = ids.length * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                names = Arrays.copyOf(names, capacity);
+                prices = Arrays.copyOf(prices, capacity);
+                funds = Arrays.copyOf(funds, capacity);
+                statuses = Arrays.copyOf(statuses, capacity);
+                cityRefs = Arrays.copyOf(cityRefs, capacity);
+                sellerRefs = Arrays.copyOf(sellerRefs, capacity);
+                keywordStarts = Arrays.copyOf(keywordStarts, capacity + 1);
+            }
+            int required = keywordStarts[size] + keywordCount;
+            if (required > keywordRefs.length) {
+                keywordRefs = Arrays.copyOf(keywordRefs, Math.max(required, keywordRefs.length * 2));
+            }
+            return size++;
+        }
+
+        public CampaignSnapshot build() {
+            return new CampaignSnapshot(this);
+        }
+    }
+
+    private static final class StringTable {
+
+        private final SerializedString[] values;
+        private final Map<String, Integer> indexes;
+
+        private StringTable(SerializedString[] values, Map<String, Integer> indexes) {
+            this.values = values;
+            this.indexes = indexes;
+        }
+
+        int indexOf(String value) {
+            return indexes.getOrDefault(value, -1);
+        }
+
+        String value(int index) {
+            return values[index].getValue();
+        }
+
+        SerializedString serialized(int index) {
+            return values[index];
+        }
+
+        private static final class Builder {
+
+            private final List<SerializedString> values;
+            private final Map<String, Integer> indexes;
+
+            private Builder(StringTable base) {
+                values = base != null ? new ArrayList<>(Arrays.asList(base.values)) : new ArrayList<>();
+                indexes = base != null ? new HashMap<>(base.indexes) : new HashMap<>();
+            }
+
+            int intern(String value) {
+                return indexes.computeIfAbsent(value, v -> {
+                    values.add(new SerializedString(v));
+                    return values.size() - 1;
+                });
+            }
+
+            StringTable build() {
+                return new StringTable(values.toArray(SerializedString[]::new), Map.copyOf(indexes));
+            }
+        }
+    }
+}
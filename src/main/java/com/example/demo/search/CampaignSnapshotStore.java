@@ -0,0 +1,111 @@
+package com.example.demo.search;
+
+import com.example.demo.dtos.CampaignDTO;
+import com.example.demo.events.CampaignChangedEvent;
+import com.example.demo.repositories.CampaignRepository;
+import com.example.demo.repositories.projections.CampaignKeywordRef;
+import com.example.demo.repositories.projections.CampaignRow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds the current {@link CampaignSnapshot} generation. Built once the application is ready;
+ * committed {@link CampaignChangedEvent}s are only queued (coalesced per campaign) and applied by
+ * the first read that finds them, so every read still sees all committed changes. Fund and status
+ * changes are patched into the current rows; only inserts, deletions and moves between cities,
+ * sellers or keywords copy the generation, once per burst.
+ */
+@Component
+public class CampaignSnapshotStore {
+
+    private static final Logger log = LoggerFactory.getLogger(CampaignSnapshotStore.class);
+
+    private final CampaignRepository campaignRepository;
+
+    // Latest state per campaign since the last merge; Optional.empty() marks a deletion.
+    private final Map<Long, Optional<CampaignDTO>> pending = new ConcurrentHashMap<>();
+
+    private volatile CampaignSnapshot snapshot;
+
+    public CampaignSnapshotStore(CampaignRepository campaignRepository) {
+        this.campaignRepository = campaignRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        long started = System.nanoTime();
+        List<CampaignRow> rows = campaignRepository.findAllRows();
+        List<CampaignKeywordRef> keywordRefs = campaignRepository.findAllKeywordRefs();
+
+        CampaignSnapshot.Builder builder = CampaignSnapshot.builder(rows.size());
+        List<String> keywords = new ArrayList<>();
+        int k = 0;
+        for (CampaignRow row : rows) {
+            // Both lists are ordered by campaign ID; refs of campaigns missing from rows are skipped.
+            while (k < keywordRefs.size() && keywordRefs.get(k).campaignId() < row.id()) {
+                k++;
+            }
+            keywords.clear();
+            while (k < keywordRefs.size() && keywordRefs.get(k).campaignId().equals(row.id())) {
+                keywords.add(keywordRefs.get(k++).keywordName());
+            }
+            builder.add(row.id(), row.name(), row.price(), row.fund(), row.status(), row.cityName(),
+                    row.sellerName(), keywords);
+        }
+        // Changes queued meanwhile are kept: re-applying a state the query already saw is harmless.
+        snapshot = builder.build();
+        log.info("Campaign snapshot built in {} ms: {} campaigns",
+                (System.nanoTime() - started) / 1_000_000, rows.size());
+    }
+
+    // Ahead of the other listeners, so SearchResultCache never reloads from a generation missing the change.
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCampaignChanged(CampaignChangedEvent event) {
+        pending.put(event.campaignId(), Optional.ofNullable(event.current()));
+    }
+
+    public boolean isReady() {
+        return snapshot != null;
+    }
+
+    /**
+     * @return the current generation with every committed change applied, or {@code null} before
+     * the first build
+     */
+    public CampaignSnapshot current() {
+        CampaignSnapshot current = snapshot;
+        if (current == null || pending.isEmpty()) {
+            return current;
+        }
+        return applyPending();
+    }
+
+    private synchronized CampaignSnapshot applyPending() {
+        TreeMap<Long, CampaignDTO> changes = new TreeMap<>();
+        for (Long campaignId : pending.keySet()) {
+            Optional<CampaignDTO> change = pending.remove(campaignId);
+            if (change != null) {
+                changes.put(campaignId, change.orElse(null));
+            }
+        }
+        if (!changes.isEmpty()) {
+            // Re-assigned even when patched in place: the volatile write publishes the new values.
+            snapshot = snapshot.patch(changes);
+        }
+        return snapshot;
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.demo.search;
+
+/**
+ * Receives the cities found by a radius query together with their distance from the center, so
+ * callers that rank by distance do not have to compute it again.
+ */
+@FunctionalInterface
+public interface CityDistanceConsumer {
+
+    void accept(long cityId, double distanceKm);
+}
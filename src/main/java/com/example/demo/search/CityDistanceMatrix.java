@@ -0,0 +1,119 @@
+package com.example.demo.search;
+
+import com.example.demo.entities.City;
+import com.example.demo.events.CityCatalogRefreshedEvent;
+import com.example.demo.services.CityCatalog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Precomputed city-to-city distances, so radius searches never evaluate great-circle formulas per
+ * request: every city keeps its nearest {@code max-neighbors} cities sorted by distance, and a
+ * search is a binary search for the cutoff followed by an {@code IN (city_ids)} lookup. Built from
+ * the {@link CityCatalog} on startup and rebuilt whenever the catalog is refreshed (new cities).
+ * See {@code benchmarks/city-distance-matrix-footprint.md} for memory use at 10k cities.
+ */
+@Component
+public class CityDistanceMatrix {
+
+    private static final Logger log = LoggerFactory.getLogger(CityDistanceMatrix.class);
+
+    /**
+     * Accuracy of {@link #distanceKm}; callers needing a conservative bound subtract it.
+     */
+    public static final double RESOLUTION_KM = CityDistances.RESOLUTION_KM;
+
+    public record Footprint(int cities, int neighborsPerCity, boolean matrixStored,
+                            long matrixBytes, long neighborListBytes, long lookupBytes) {
+        public long totalBytes() {
+            return matrixBytes + neighborListBytes + lookupBytes;
+        }
+    }
+
+    private final CityCatalog cityCatalog;
+    private final int maxNeighbors;
+    private final int maxMatrixCities;
+
+    private volatile CityDistances distances;
+
+    public CityDistanceMatrix(CityCatalog cityCatalog,
+                              @Value("${app.city-matrix.max-neighbors:256}") int maxNeighbors,
+                              @Value("${app.city-matrix.max-matrix-cities:5000}") int maxMatrixCities) {
+        this.cityCatalog = cityCatalog;
+        this.maxNeighbors = maxNeighbors;
+        this.maxMatrixCities = maxMatrixCities;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        long started = System.nanoTime();
+        List<City> cities = cityCatalog.cities();
+        int n = cities.size();
+        long[] ids = new long[n];
+        double[] latitudes = new double[n];
+        double[] longitudes = new double[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = cities.get(i).getId();
+            latitudes[i] = cities.get(i).getLatitude();
+            longitudes[i] = cities.get(i).getLongitude();
+        }
+        distances = CityDistances.build(ids, latitudes, longitudes, maxNeighbors, maxMatrixCities);
+
+        Footprint footprint = footprint();
+        log.info("City distance matrix built in {} ms: {} cities, {} neighbors each, {} KiB (matrix {} KiB)",
+                (System.nanoTime() - started) / 1_000_000, n, footprint.neighborsPerCity(),
+                footprint.totalBytes() / 1024, footprint.matrixBytes() / 1024);
+    }
+
+    @EventListener
+    public void onCityCatalogRefreshed(CityCatalogRefreshedEvent event) {
+        rebuild();
+    }
+
+    private CityDistances distances() {
+        CityDistances current = distances;
+        if (current == null) {
+            rebuild();
+            current = distances;
+        }
+        return current;
+    }
+
+    /**
+     * @return {@code false} when the city is not (yet) in the matrix
+     */
+    public boolean forEachCityWithin(long cityId, double radiusKm, CityDistanceConsumer action) {
+        return distances().forEachWithin(cityId, radiusKm, action);
+    }
+
+    /**
+     * IDs of the cities within {@code radiusKm} of the given city, itself included; empty when the
+     * city is unknown.
+     */
+    public List<Long> cityIdsWithin(long cityId, double radiusKm) {
+        List<Long> cityIds = new ArrayList<>();
+        distances().forEachWithin(cityId, radiusKm, (id, distanceKm) -> cityIds.add(id));
+        return cityIds;
+    }
+
+    /**
+     * Distance between two cities, accurate to {@link #RESOLUTION_KM}; {@code NaN} if either is
+     * unknown.
+     */
+    public double distanceKm(long fromCityId, long toCityId) {
+        return distances().distanceKm(fromCityId, toCityId);
+    }
+
+    public Footprint footprint() {
+        CityDistances current = distances();
+        return new Footprint(current.size(), current.neighborsPerCity(), current.hasMatrix(),
+                current.matrixBytes(), current.neighborListBytes(), current.lookupBytes());
+    }
+}
@@ -0,0 +1,265 @@
+package com.example.demo.search;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable precomputed distances between cities: for every city the {@code maxNeighbors} closest
+ * cities sorted by distance (float km), plus optionally the full pairwise matrix as an upper
+ * triangle of unsigned 16-bit values in {@link #RESOLUTION_KM} units. A radius query is a binary
+ * search for the cutoff in the neighbor list; only when the radius reaches past a truncated list do
+ * we fall back to scanning every city.
+ */
+final class CityDistances {
+
+    static final double RESOLUTION_KM = 0.1;
+    private static final int MAX_ARRAY_LENGTH = Integer.MAX_VALUE - 8;
+
+    private final long[] ids;
+    private final Map<Long, Integer> positions;
+    private final double[] sinLatitudes;
+    private final double[] cosLatitudes;
+    private final double[] longitudesRad;
+    private final char[] triangle;
+    private final int neighborsPerCity;
+    private final int[] neighbors;
+    private final float[] neighborDistances;
+
+    private CityDistances(long[] ids, Map<Long, Integer> positions, double[] sinLatitudes, double[] cosLatitudes,
+                          double[] longitudesRad, char[] triangle, int neighborsPerCity, int[] neighbors,
+                          float[] neighborDistances) {
+        this.ids = ids;
+        this.positions = positions;
+        this.sinLatitudes = sinLatitudes;
+        this.cosLatitudes = cosLatitudes;
+        this.longitudesRad = longitudesRad;
+        this.triangle = triangle;
+        this.neighborsPerCity = neighborsPerCity;
+        this.neighbors = neighbors;
+        this.neighborDistances = neighborDistances;
+    }
+
+    /**
+     * @param maxMatrixCities the pairwise matrix is only stored up to this many cities
+     */
+    static CityDistances build(long[] ids, double[] latitudes, double[] longitudes,
+                               int maxNeighbors, int maxMatrixCities) {
+        int n = ids.length;
+        Map<Long, Integer> positions = new HashMap<>(n * 2);
+        double[] sinLatitudes = new double[n];
+        double[] cosLatitudes = new double[n];
+        double[] longitudesRad = new double[n];
+        for (int i = 0; i < n; i++) {
+            positions.put(ids[i], i);
+            double latitudeRad = Math.toRadians(latitudes[i]);
+            sinLatitudes[i] = Math.sin(latitudeRad);
+            cosLatitudes[i] = Math.cos(latitudeRad);
+            longitudesRad[i] = Math.toRadians(longitudes[i]);
+        }
+
+        long pairs = (long) n * (n - 1) / 2;
+        char[] triangle = n <= maxMatrixCities && pairs <= MAX_ARRAY_LENGTH ? new char[(int) pairs] : null;
+        int k = (int) Math.min(Math.min(n, Math.max(1, maxNeighbors)), MAX_ARRAY_LENGTH / Math.max(n, 1));
+        int[] neighbors = new int[n * k];
+        float[] neighborDistances = new float[n * k];
+
+        CityDistances distances = new CityDistances(ids, positions, sinLatitudes, cosLatitudes, longitudesRad,
+                triangle, k, neighbors, neighborDistances);
+        IntStream.range(0, n).parallel().forEach(distances::fillRow);
+        return distances;
+    }
+
+    // Row i: the upper-triangle part of the matrix and the k nearest cities. Nearest is selected on
+    // the cosine of the central angle (larger = closer), so acos only runs for stored values.
+    private void fillRow(int i) {
+        int n = ids.length;
+        double[] cosAngles = new double[n];
+        for (int j = 0; j < n; j++) {
+            cosAngles[j] = cosAngle(i, j);
+            if (triangle != null && j > i) {
+                triangle[triangleIndex(i, j)] = (char) Math.min(Character.MAX_VALUE,
+                        Math.round(toKm(cosAngles[j]) / RESOLUTION_KM));
+            }
+        }
+
+        int[] nearest = nearest(cosAngles, neighborsPerCity);
+        // Non-negative floats order like their bit patterns, so (bits << 32 | index) sorts by distance.
+        long[] keyed = new long[nearest.length];
+        for (int t = 0; t < nearest.length; t++) {
+            float distance = (float) toKm(cosAngles[nearest[t]]);
+            keyed[t] = ((long) Float.floatToIntBits(distance) << 32) | nearest[t];
+        }
+        Arrays.sort(keyed);
+        int base = i * neighborsPerCity;
+        for (int t = 0; t < keyed.length; t++) {
+            neighbors[base + t] = (int) keyed[t];
+            neighborDistances[base + t] = Float.intBitsToFloat((int) (keyed[t] >>> 32));
+        }
+    }
+
+    // Indexes of the k largest values, via a size-k min-heap.
+    private static int[] nearest(double[] cosAngles, int k) {
+        int n = cosAngles.length;
+        int[] heap = new int[k];
+        if (k == n) {
+            for (int j = 0; j < n; j++) {
+                heap[j] = j;
+            }
+            return heap;
+        }
+        for (int j = 0; j < k; j++) {
+            heap[j] = j;
+        }
+        for (int j = k / 2 - 1; j >= 0; j--) {
+            siftDown(heap, cosAngles, j);
+        }
+        for (int j = k; j < n; j++) {
+            if (cosAngles[j] > cosAngles[heap[0]]) {
+                heap[0] = j;
+                siftDown(heap, cosAngles, 0);
+            }
+        }
+        return heap;
+    }
+
+    private static void siftDown(int[] heap, double[] values, int position) {
+        int k = heap.length;
+        int current = position;
+        while (true) {
+            int smallest = current;
+            int left = 2 * current + 1;
+            int right = left + 1;
+            if (left < k && values[heap[left]] < values[heap[smallest]]) {
+                smallest = left;
+            }
+            if (right < k && values[heap[right]] < values[heap[smallest]]) {
+                smallest = right;
+            }
+            if (smallest == current) {
+                return;
+            }
+            int swap = heap[current];
+            heap[current] = heap[smallest];
+            heap[smallest] = swap;
+            current = smallest;
+        }
+    }
+
+    int size() {
+        return ids.length;
+    }
+
+    boolean contains(long cityId) {
+        return positions.containsKey(cityId);
+    }
+
+    /**
+     * Calls {@code action} with the ID and distance of every city within {@code radiusKm} of the
+     * given city (including itself).
+     *
+     * @return {@code false} when the city is unknown
+     */
+    boolean forEachWithin(long cityId, double radiusKm, CityDistanceConsumer action) {
+        Integer position = positions.get(cityId);
+        if (position == null) {
+            return false;
+        }
+        int base = position * neighborsPerCity;
+        if (neighborsPerCity < ids.length && radiusKm >= neighborDistances[base + neighborsPerCity - 1]) {
+            scanAll(position, radiusKm, action);
+            return true;
+        }
+
+        int low = 0;
+        int high = neighborsPerCity;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (neighborDistances[base + mid] <= radiusKm) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        for (int t = 0; t < low; t++) {
+            action.accept(ids[neighbors[base + t]], neighborDistances[base + t]);
+        }
+        return true;
+    }
+
+    private void scanAll(int position, double radiusKm, CityDistanceConsumer action) {
+        for (int j = 0; j < ids.length; j++) {
+            if (triangle != null && j != position && approximateKm(position, j) - RESOLUTION_KM > radiusKm) {
+                continue;
+            }
+            double km = exactKm(position, j);
+            if ((float) km <= radiusKm) {
+                action.accept(ids[j], km);
+            }
+        }
+    }
+
+    /**
+     * Distance between two cities, within {@link #RESOLUTION_KM} when the matrix is stored.
+     *
+     * @return {@code NaN} when either city is unknown
+     */
+    double distanceKm(long fromCityId, long toCityId) {
+        Integer from = positions.get(fromCityId);
+        Integer to = positions.get(toCityId);
+        if (from == null || to == null) {
+            return Double.NaN;
+        }
+        return triangle != null ? approximateKm(from, to) : exactKm(from, to);
+    }
+
+    private double approximateKm(int i, int j) {
+        if (i == j) {
+            return 0;
+        }
+        return triangle[i < j ? triangleIndex(i, j) : triangleIndex(j, i)] * RESOLUTION_KM;
+    }
+
+    // Same spherical law of cosines as GeoMath, on precomputed trigonometry.
+    private double exactKm(int i, int j) {
+        return toKm(cosAngle(i, j));
+    }
+
+    private double cosAngle(int i, int j) {
+        return cosLatitudes[i] * cosLatitudes[j] * Math.cos(longitudesRad[j] - longitudesRad[i])
+                + sinLatitudes[i] * sinLatitudes[j];
+    }
+
+    private static double toKm(double cosAngle) {
+        return GeoMath.EARTH_RADIUS_KM * Math.acos(Math.max(-1.0, Math.min(1.0, cosAngle)));
+    }
+
+    private int triangleIndex(int i, int j) {
+        int n = ids.length;
+        return (int) ((long) i * n - (long) i * (i + 1) / 2 + (j - i - 1));
+    }
+
+    int neighborsPerCity() {
+        return neighborsPerCity;
+    }
+
+    boolean hasMatrix() {
+        return triangle != null;
+    }
+
+    /**
+     * Bytes held by the arrays (the ID-to-position map is estimated at 64 bytes per entry).
+     */
+    long matrixBytes() {
+        return triangle != null ? (long) triangle.length * Character.BYTES : 0;
+    }
+
+    long neighborListBytes() {
+        return (long) neighbors.length * Integer.BYTES + (long) neighborDistances.length * Float.BYTES;
+    }
+
+    long lookupBytes() {
+        return (long) ids.length * (Long.BYTES + 3 * Double.BYTES + 64);
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.demo.search;
+
+import com.example.demo.entities.City;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable 2-d tree over city coordinates, stored implicitly in arrays (the median of every
+ * sub-range is its root). A radius query walks only the branches that intersect the bounding box
+ * of the search circle and then applies the exact distance check.
+ */
+final class CityKdTree {
+
+    private final long[] ids;
+    private final double[] latitudes;
+    private final double[] longitudes;
+
+    private CityKdTree(long[] ids, double[] latitudes, double[] longitudes) {
+        this.ids = ids;
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+    }
+
+    static CityKdTree build(List<City> cities) {
+        City[] points = cities.toArray(new City[0]);
+        sort(points, 0, points.length, 0);
+
+        long[] ids = new long[points.length];
+        double[] latitudes = new double[points.length];
+        double[] longitudes = new double[points.length];
+        for (int i = 0; i < points.length; i++) {
+            ids[i] = points[i].getId();
+            latitudes[i] = points[i].getLatitude();
+            longitudes[i] = points[i].getLongitude();
+        }
+        return new CityKdTree(ids, latitudes, longitudes);
+    }
+
+    private static void sort(City[] points, int from, int to, int depth) {
+        if (to - from <= 1) {
+            return;
+        }
+        Comparator<City> byAxis = depth % 2 == 0
+                ? Comparator.comparingDouble(City::getLatitude)
+                : Comparator.comparingDouble(City::getLongitude);
+        Arrays.sort(points, from, to, byAxis);
+        int mid = (from + to) >>> 1;
+        sort(points, from, mid, depth + 1);
+        sort(points, mid + 1, to, depth + 1);
+    }
+
+    int size() {
+        return ids.length;
+    }
+
+    void forEachWithin(double lat, double lon, double radiusKm, CityDistanceConsumer cityConsumer) {
+        GeoBoundingBox box = GeoMath.boundingBox(lat, lon, radiusKm);
+        search(0, ids.length, 0, box, lat, lon, radiusKm, cityConsumer);
+    }
+
+    private void search(int from, int to, int depth, GeoBoundingBox box,
+                        double lat, double lon, double radiusKm, CityDistanceConsumer cityConsumer) {
+        if (from >= to) {
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        double pointLat = latitudes[mid];
+        double pointLon = longitudes[mid];
+
+        if (box.contains(pointLat, pointLon)) {
+            double distanceKm = GeoMath.distanceKm(lat, lon, pointLat, pointLon);
+            if (distanceKm <= radiusKm) {
+                cityConsumer.accept(ids[mid], distanceKm);
+            }
+        }
+
+        boolean latAxis = depth % 2 == 0;
+        double split = latAxis ? pointLat : pointLon;
+        double boxMin = latAxis ? box.minLat() : box.minLon();
+        double boxMax = latAxis ? box.maxLat() : box.maxLon();
+
+        if (boxMin <= split) {
+            search(from, mid, depth + 1, box, lat, lon, radiusKm, cityConsumer);
+        }
+        if (boxMax >= split) {
+            search(mid + 1, to, depth + 1, box, lat, lon, radiusKm, cityConsumer);
+        }
+    }
+}
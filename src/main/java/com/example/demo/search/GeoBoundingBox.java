@@ -0,0 +1,8 @@
+package com.example.demo.search;
+
+public record GeoBoundingBox(double minLat, double maxLat, double minLon, double maxLon) {
+
+    public boolean contains(double lat, double lon) {
+        return lat >= minLat && lat <= maxLat && lon >= minLon && lon <= maxLon;
+    }
+}
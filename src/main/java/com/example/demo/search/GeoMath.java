@@ -0,0 +1,62 @@
+package com.example.demo.search;
+
+/**
+ * Great-circle helpers shared by the in-memory indexes. {@link #distanceKm} uses exactly the same
+ * spherical law of cosines as the native queries in {@code CampaignRepository}, so both paths agree
+ * on which cities fall inside a radius.
+ */
+public final class GeoMath {
+
+    public static final double EARTH_RADIUS_KM = 6371.0;
+
+    // Keeps points lying exactly on the circle inside the box despite rounding.
+    private static final double BOX_MARGIN_DEGREES = 1e-9;
+
+    private GeoMath() {
+    }
+
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double phi1 = Math.toRadians(lat1);
+        double phi2 = Math.toRadians(lat2);
+        double cosAngle = Math.cos(phi1) * Math.cos(phi2) * Math.cos(Math.toRadians(lon2 - lon1))
+                + Math.sin(phi1) * Math.sin(phi2);
+        return EARTH_RADIUS_KM * Math.acos(Math.max(-1.0, Math.min(1.0, cosAngle)));
+    }
+
+    /**
+     * Smallest latitude/longitude box that contains every point within {@code radiusKm} of the
+     * given location. Falls back to the full longitude range near the poles and across the
+     * antimeridian.
+     */
+    public static GeoBoundingBox boundingBox(double lat, double lon, double radiusKm) {
+        double angular = Math.max(0.0, radiusKm) / EARTH_RADIUS_KM;
+        double latRad = Math.toRadians(lat);
+        double lonRad = Math.toRadians(lon);
+
+        double minLat = latRad - angular;
+        double maxLat = latRad + angular;
+        double minLon = -Math.PI;
+        double maxLon = Math.PI;
+
+        if (minLat > -Math.PI / 2 && maxLat < Math.PI / 2) {
+            double sinRatio = Math.sin(angular) / Math.cos(latRad);
+            if (angular < Math.PI / 2 && sinRatio < 1.0) {
+                double deltaLon = Math.asin(sinRatio);
+                if (lonRad - deltaLon >= -Math.PI && lonRad + deltaLon <= Math.PI) {
+                    minLon = lonRad - deltaLon;
+                    maxLon = lonRad + deltaLon;
+                }
+            }
+        } else {
+            minLat = Math.max(minLat, -Math.PI / 2);
+            maxLat = Math.min(maxLat, Math.PI / 2);
+        }
+
+        return new GeoBoundingBox(
+                Math.toDegrees(minLat) - BOX_MARGIN_DEGREES,
+                Math.toDegrees(maxLat) + BOX_MARGIN_DEGREES,
+                Math.toDegrees(minLon) - BOX_MARGIN_DEGREES,
+                Math.toDegrees(maxLon) + BOX_MARGIN_DEGREES
+        );
+    }
+}
@@ -0,0 +1,235 @@
+package com.example.demo.search;
+
+import com.example.demo.dtos.CampaignDTO;
+import com.example.demo.events.CampaignChangedEvent;
+import com.example.demo.repositories.KeywordRepository;
+import com.example.demo.repositories.projections.KeywordUsage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Keyword autocomplete served entirely from memory. Every word of every keyword name is folded
+ * (lower case, diacritics stripped) and kept in a sorted array, so a prefix lookup is a binary
+ * search plus a short scan. Matches are ranked by how many campaigns use the keyword; usage counts
+ * follow {@link CampaignChangedEvent}s incrementally.
+ */
+@Component
+public class KeywordSuggestionIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(KeywordSuggestionIndex.class);
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private record Snapshot(String[] names,
+                            Map<String, Integer> indexByName,
+                            String[] tokens,
+                            int[] tokenOwners,
+                            AtomicIntegerArray usage) {
+    }
+
+    private final KeywordRepository keywordRepository;
+
+    private volatile Snapshot snapshot;
+    // Ranking for an empty query; dropped whenever a usage count changes.
+    private volatile List<String> mostUsed;
+    // Bumped after every change that can alter a suggestion.
+    private final AtomicLong generation = new AtomicLong();
+
+    public KeywordSuggestionIndex(KeywordRepository keywordRepository) {
+        this.keywordRepository = keywordRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        List<KeywordUsage> keywords = keywordRepository.findUsage();
+
+        String[] names = new String[keywords.size()];
+        AtomicIntegerArray usage = new AtomicIntegerArray(keywords.size());
+        Map<String, Integer> indexByName = new HashMap<>();
+        List<String> tokenList = new ArrayList<>();
+        List<Integer> ownerList = new ArrayList<>();
+
+        for (int i = 0; i < keywords.size(); i++) {
+            KeywordUsage keyword = keywords.get(i);
+            names[i] = keyword.name();
+            usage.set(i, keyword.campaignCount().intValue());
+            indexByName.put(keyword.name(), i);
+            for (String word : fold(keyword.name()).split("\\s+")) {
+                if (!word.isEmpty()) {
+                    tokenList.add(word);
+                    ownerList.add(i);
+                }
+            }
+        }
+
+        Integer[] order = new Integer[tokenList.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> tokenList.get(a).compareTo(tokenList.get(b)));
+        String[] tokens = new String[order.length];
+        int[] tokenOwners = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            tokens[i] = tokenList.get(order[i]);
+            tokenOwners[i] = ownerList.get(order[i]);
+        }
+
+        snapshot = new Snapshot(names, indexByName, tokens, tokenOwners, usage);
+        mostUsed = null;
+        generation.incrementAndGet();
+        log.info("Keyword suggestion index built: {} keywords, {} tokens", names.length, tokens.length);
+    }
+
+    public boolean isReady() {
+        return snapshot != null;
+    }
+
+    /**
+     * Changes whenever suggestions may have changed; read it before {@link #suggest} to tag the result.
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    public List<String> suggest(String query, int limit) {
+        Snapshot current = snapshot;
+        String prefix = query == null ? "" : fold(query.trim());
+        if (prefix.isEmpty()) {
+            return mostUsed(current, limit);
+        }
+
+        // Bounded top-N by usage, kept sorted best-first.
+        int[] best = new int[limit];
+        int found = 0;
+        boolean[] seen = new boolean[current.names().length];
+
+        for (int i = lowerBound(current.tokens(), prefix);
+             i < current.tokens().length && current.tokens()[i].startsWith(prefix); i++) {
+            int keyword = current.tokenOwners()[i];
+            if (seen[keyword]) {
+                continue;
+            }
+            seen[keyword] = true;
+
+            int position = found;
+            while (position > 0 && ranksBefore(current, keyword, best[position - 1])) {
+                position--;
+            }
+            if (position >= limit) {
+                continue;
+            }
+            int shift = Math.min(found, limit - 1) - position;
+            System.arraycopy(best, position, best, position + 1, shift);
+            best[position] = keyword;
+            found = Math.min(found + 1, limit);
+        }
+
+        List<String> result = new ArrayList<>(found);
+        for (int i = 0; i < found; i++) {
+            result.add(current.names()[best[i]]);
+        }
+        return result;
+    }
+
+    private List<String> mostUsed(Snapshot current, int limit) {
+        List<String> ranking = mostUsed;
+        if (ranking == null) {
+            Integer[] order = new Integer[current.names().length];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> ranksBefore(current, a, b) ? -1 : ranksBefore(current, b, a) ? 1 : 0);
+            ranking = Arrays.stream(order).map(i -> current.names()[i]).toList();
+            mostUsed = ranking;
+        }
+        return new ArrayList<>(ranking.subList(0, Math.min(limit, ranking.size())));
+    }
+
+    private static boolean ranksBefore(Snapshot current, int a, int b) {
+        int usageA = current.usage().get(a);
+        int usageB = current.usage().get(b);
+        if (usageA != usageB) {
+            return usageA > usageB;
+        }
+        return current.names()[a].compareTo(current.names()[b]) < 0;
+    }
+
+    private static int lowerBound(String[] tokens, String prefix) {
+        int low = 0;
+        int high = tokens.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (tokens[mid].compareTo(prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    static String fold(String text) {
+        String lower = text.toLowerCase(Locale.ROOT).replace('ł', 'l');
+        return COMBINING_MARKS.matcher(Normalizer.normalize(lower, Normalizer.Form.NFD)).replaceAll("");
+    }
+
+    // Under the rebuild lock: a change committed while rebuild() reads goes into the new index instead
+    // of the one being replaced (one the read already saw is counted twice until the next rebuild).
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCampaignChanged(CampaignChangedEvent event) {
+        Set<String> before = keywordsOf(event.previous());
+        Set<String> after = keywordsOf(event.current());
+        if (before.equals(after)) {
+            return;
+        }
+        synchronized (this) {
+            Snapshot current = snapshot;
+            if (current == null) {
+                return;
+            }
+            if (!current.indexByName().keySet().containsAll(after)) {
+                // New keyword names appeared - rebuild picks them up with fresh counts.
+                rebuild();
+                return;
+            }
+
+            boolean changed = adjust(current, before, after, -1) | adjust(current, after, before, +1);
+            if (changed) {
+                mostUsed = null;
+                generation.incrementAndGet();
+            }
+        }
+    }
+
+    private static boolean adjust(Snapshot current, Collection<String> names, Set<String> except, int delta) {
+        boolean changed = false;
+        for (String name : names) {
+            Integer index = current.indexByName().get(name);
+            if (index != null && !except.contains(name)) {
+                current.usage().addAndGet(index, delta);
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    private static Set<String> keywordsOf(CampaignDTO campaign) {
+        return campaign != null ? campaign.keywordsNames() : Set.of();
+    }
+}
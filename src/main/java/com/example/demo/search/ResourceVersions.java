@@ -0,0 +1,86 @@
+package com.example.demo.search;
+
+import com.example.demo.dtos.CampaignDTO;
+import com.example.demo.events.CampaignChangedEvent;
+import com.example.demo.events.CityCatalogRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Strong ETags for the polled read endpoints, computed without touching the data they describe:
+ * a single campaign is tagged with its {@code @Version} and a status still pending in the
+ * write-behind (the version moves only when it is flushed), a seller's campaign list with a counter
+ * bumped after every committed change of one of its campaigns, keyword suggestions with the
+ * {@link KeywordSuggestionIndex} generation. Every tag starts with the boot epoch (versions and
+ * counters restart with the schema) and a shared generation bumped by changes that touch every
+ * list at once: a city catalog refresh or a write-behind status flush.
+ * <p>
+ * Counters move after commit, so a tag has to be read before the data it is sent with: a tag that
+ * is too old only costs the client one more full response, one that is too new would hide a change.
+ */
+@Component
+public class ResourceVersions {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+    private final AtomicLong shared = new AtomicLong();
+    private final Map<String, AtomicLong> sellerCampaigns = new ConcurrentHashMap<>();
+    private final KeywordSuggestionIndex keywordSuggestionIndex;
+
+    public ResourceVersions(KeywordSuggestionIndex keywordSuggestionIndex) {
+        this.keywordSuggestionIndex = keywordSuggestionIndex;
+    }
+
+    public String campaign(long campaignId, long version, Optional<Boolean> pendingStatus) {
+        String tag = prefix() + "-" + campaignId + "-" + version;
+        return pendingStatus.map(status -> tag + (status ? "-s1" : "-s0")).orElse(tag);
+    }
+
+    public String sellerCampaigns(String username) {
+        AtomicLong counter = sellerCampaigns.get(username);
+        return prefix() + "-" + (counter != null ? counter.get() : 0);
+    }
+
+    /**
+     * Empty while suggestions are still answered from the database.
+     */
+    public Optional<String> keywordSuggestions() {
+        if (!keywordSuggestionIndex.isReady()) {
+            return Optional.empty();
+        }
+        return Optional.of(prefix() + "-" + keywordSuggestionIndex.generation());
+    }
+
+    /**
+     * Changes every list tag; for writes that are not announced per campaign.
+     */
+    public void invalidateAll() {
+        shared.incrementAndGet();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCampaignChanged(CampaignChangedEvent event) {
+        bump(event.previous());
+        bump(event.current());
+    }
+
+    @EventListener
+    public void onCityCatalogRefreshed(CityCatalogRefreshedEvent event) {
+        invalidateAll();
+    }
+
+    private void bump(CampaignDTO campaign) {
+        if (campaign != null) {
+            sellerCampaigns.computeIfAbsent(campaign.sellerName(), username -> new AtomicLong()).incrementAndGet();
+        }
+    }
+
+    private String prefix() {
+        return epoch + "." + shared.get();
+    }
+}
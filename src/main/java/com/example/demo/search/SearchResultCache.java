@@ -0,0 +1,174 @@
+package com.example.demo.search;
+
+import com.example.demo.dtos.CampaignDTO;
+import com.example.demo.entities.City;
+import com.example.demo.events.CampaignChangedEvent;
+import com.example.demo.events.CityCatalogRefreshedEvent;
+import com.example.demo.services.CityCatalog;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleFunction;
+
+/**
+ * Bounded (Caffeine, W-TinyLFU) cache of location and location + keyword search results. The key
+ * holds the search city, the radius rounded up to {@code radius-step-km} and the sorted keyword
+ * set, so nearby radii share one entry; every cached campaign keeps its distance from the search
+ * city and a lookup returns only those within the exact radius asked for.
+ * <p>
+ * Entries are invalidated from {@link CampaignChangedEvent}s after commit, and only those whose
+ * circle contains the old or new city of the changed campaign (and, for keyword searches, share a
+ * keyword with it). Results loaded while an invalidation was running are returned but not cached,
+ * so a search racing with a write cannot leave a stale entry behind. Billing fund changes do not
+ * invalidate anything (they would empty the cache every flush); funds are read from the current
+ * {@link CampaignSnapshot} when a result is served instead. Hit/miss counts are published
+ * as the {@code cache.gets} metric with {@code cache=campaign.search}.
+ */
+@Component
+public class SearchResultCache {
+
+    private record Key(long cityId, double radiusKm, List<String> keywords) {
+    }
+
+    private record CachedCampaign(CampaignDTO campaign, double distanceKm) {
+    }
+
+    private final CityCatalog cityCatalog;
+    private final CampaignSnapshotStore campaignSnapshotStore;
+    private final Cache<Key, List<CachedCampaign>> cache;
+    private final double radiusStepKm;
+    private final AtomicLong invalidations = new AtomicLong();
+    private final Counter invalidatedEntries;
+
+    public SearchResultCache(CityCatalog cityCatalog,
+                             CampaignSnapshotStore campaignSnapshotStore,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.search-cache.max-size:10000}") long maxSize,
+                             @Value("${app.search-cache.ttl:PT10M}") Duration ttl,
+                             @Value("${app.search-cache.radius-step-km:5}") double radiusStepKm) {
+        this.cityCatalog = cityCatalog;
+        this.campaignSnapshotStore = campaignSnapshotStore;
+        this.radiusStepKm = radiusStepKm;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "campaign.search");
+        this.invalidatedEntries = Counter.builder("app.search.cache.invalidated")
+                .description("Search cache entries dropped because a campaign inside them changed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param keywords {@code null} for a location-only search
+     * @param loader   loads active campaigns within the given (rounded up) radius
+     */
+    public List<CampaignDTO> get(City searchCity, double radiusKm, Collection<String> keywords,
+                                 DoubleFunction<List<CampaignDTO>> loader) {
+        Key key = new Key(searchCity.getId(), quantize(radiusKm),
+                keywords != null ? List.copyOf(new TreeSet<>(keywords)) : null);
+
+        List<CachedCampaign> cached = cache.getIfPresent(key);
+        if (cached == null) {
+            long stamp = invalidations.get();
+            cached = withDistances(searchCity, loader.apply(key.radiusKm()));
+            if (invalidations.get() == stamp) {
+                cache.put(key, cached);
+            }
+        }
+
+        CampaignSnapshot snapshot = campaignSnapshotStore.current();
+        List<CampaignDTO> result = new ArrayList<>(cached.size());
+        for (CachedCampaign entry : cached) {
+            if (entry.distanceKm() <= radiusKm) {
+                result.add(withCurrentFund(snapshot, entry.campaign()));
+            }
+        }
+        return result;
+    }
+
+    private static CampaignDTO withCurrentFund(CampaignSnapshot snapshot, CampaignDTO campaign) {
+        int row = snapshot != null ? snapshot.rowOf(campaign.id()) : -1;
+        if (row < 0 || snapshot.fundAt(row) == campaign.fund()) {
+            return campaign;
+        }
+        return new CampaignDTO(campaign.id(), campaign.name(), campaign.keywordsNames(), campaign.price(),
+                snapshot.fundAt(row), campaign.status(), campaign.city(), campaign.sellerName());
+    }
+
+    private double quantize(double radiusKm) {
+        if (radiusStepKm <= 0 || radiusKm <= 0) {
+            return radiusKm;
+        }
+        return Math.ceil(radiusKm / radiusStepKm) * radiusStepKm;
+    }
+
+    private List<CachedCampaign> withDistances(City searchCity, List<CampaignDTO> campaigns) {
+        List<CachedCampaign> entries = new ArrayList<>(campaigns.size());
+        for (CampaignDTO campaign : campaigns) {
+            int cityIndex = cityCatalog.indexOf(campaign.city());
+            double distance = cityIndex < 0 ? Double.MAX_VALUE : GeoMath.distanceKm(
+                    searchCity.getLatitude(), searchCity.getLongitude(),
+                    cityCatalog.latitudeAt(cityIndex), cityCatalog.longitudeAt(cityIndex));
+            entries.add(new CachedCampaign(campaign, distance));
+        }
+        return List.copyOf(entries);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCampaignChanged(CampaignChangedEvent event) {
+        if (event.type() == CampaignChangedEvent.Type.FUND_CHANGED) {
+            // Billing changes funds every flush; get() serves the snapshot fund instead.
+            return;
+        }
+        invalidations.incrementAndGet();
+        cache.asMap().keySet().removeIf(key -> {
+            boolean affected = affects(key, event.previous()) || affects(key, event.current());
+            if (affected) {
+                invalidatedEntries.increment();
+            }
+            return affected;
+        });
+    }
+
+    @EventListener
+    public void onCityCatalogRefreshed(CityCatalogRefreshedEvent event) {
+        invalidateAll();
+    }
+
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    private boolean affects(Key key, CampaignDTO campaign) {
+        if (campaign == null) {
+            return false;
+        }
+        if (key.keywords() != null && key.keywords().stream().noneMatch(campaign.keywordsNames()::contains)) {
+            return false;
+        }
+        int searchIndex = cityCatalog.indexOf(key.cityId());
+        int campaignIndex = cityCatalog.indexOf(campaign.city());
+        if (searchIndex < 0 || campaignIndex < 0) {
+            return true;
+        }
+        return GeoMath.distanceKm(
+                cityCatalog.latitudeAt(searchIndex), cityCatalog.longitudeAt(searchIndex),
+                cityCatalog.latitudeAt(campaignIndex), cityCatalog.longitudeAt(campaignIndex)) <= key.radiusKm();
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.demo.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * Bounded, TTL-evicting cache of successful logins. Entries are keyed by username plus an HMAC of
+ * the presented password (with a per-process random key), so a hit proves the same credentials
+ * already passed the BCrypt check without keeping the password itself around.
+ */
+@Component
+public class AuthenticationCache {
+
+    private record Key(String username, String credentialsDigest) {
+    }
+
+    private final Cache<Key, UserDetails> cache;
+    private final SecretKeySpec digestKey;
+
+    public AuthenticationCache(@Value("${app.security.auth-cache.max-size:10000}") long maxSize,
+                               @Value("${app.security.auth-cache.ttl:PT5M}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        this.digestKey = new SecretKeySpec(key, "HmacSHA256");
+    }
+
+    public UserDetails get(String username, String presentedPassword) {
+        return cache.getIfPresent(new Key(username, digest(presentedPassword)));
+    }
+
+    public void put(String username, String presentedPassword, UserDetails user) {
+        cache.put(new Key(username, digest(presentedPassword)), user);
+    }
+
+    /**
+     * Drops every cached login of the user. Must be called whenever a seller's password or role
+     * changes or the seller is deleted; inside a transaction the eviction is repeated after commit
+     * so a concurrent login cannot re-cache the old row.
+     */
+    public void evict(String username) {
+        evictNow(username);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictNow(username);
+                }
+            });
+        }
+    }
+
+    private void evictNow(String username) {
+        cache.asMap().keySet().removeIf(key -> key.username().equals(username));
+    }
+
+    private String digest(String presentedPassword) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(digestKey);
+            return Base64.getEncoder().encodeToString(mac.doFinal(presentedPassword.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.demo.security;
+
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetails;
+
+/**
+ * Answers repeated HTTP Basic logins from {@link AuthenticationCache} and only falls through to the
+ * wrapped provider (database lookup + BCrypt) on a miss.
+ */
+public class CachingAuthenticationProvider implements AuthenticationProvider {
+
+    private final AuthenticationProvider delegate;
+    private final AuthenticationCache authenticationCache;
+
+    public CachingAuthenticationProvider(AuthenticationProvider delegate, AuthenticationCache authenticationCache) {
+        this.delegate = delegate;
+        this.authenticationCache = authenticationCache;
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        String username = authentication.getName();
+        Object credentials = authentication.getCredentials();
+        if (credentials == null) {
+            return delegate.authenticate(authentication);
+        }
+
+        String presentedPassword = credentials.toString();
+        UserDetails cached = authenticationCache.get(username, presentedPassword);
+        if (cached != null) {
+            UsernamePasswordAuthenticationToken result = UsernamePasswordAuthenticationToken.authenticated(
+                    cached, credentials, cached.getAuthorities());
+            result.setDetails(authentication.getDetails());
+            return result;
+        }
+
+        Authentication result = delegate.authenticate(authentication);
+        if (result != null && result.getPrincipal() instanceof UserDetails user) {
+            authenticationCache.put(username, presentedPassword, user);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return delegate.supports(authentication);
+    }
+}
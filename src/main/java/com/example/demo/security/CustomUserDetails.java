@@ -1,6 +1,7 @@
 package com.example.demo.security;
 
 import com.example.demo.entities.Seller;
+import com.example.demo.repositories.projections.SellerCredentials;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -20,6 +21,12 @@ public class CustomUserDetails implements UserDetails {
         this.authorities = List.of(new SimpleGrantedAuthority(seller.getRole()));
     }
 
+    public CustomUserDetails(SellerCredentials credentials) {
+        this.username = credentials.username();
+        this.password = credentials.password();
+        this.authorities = List.of(new SimpleGrantedAuthority(credentials.role()));
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return authorities;
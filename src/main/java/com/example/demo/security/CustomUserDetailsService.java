@@ -1,7 +1,7 @@
 package com.example.demo.security;
 
-import com.example.demo.entities.Seller;
 import com.example.demo.repositories.SellerRepository;
+import com.example.demo.repositories.projections.SellerCredentials;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -18,10 +18,10 @@ public class CustomUserDetailsService implements UserDetailsService {
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        Seller seller = sellerRepository.findByUsername(username)
+        SellerCredentials credentials = sellerRepository.findCredentialsByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
 
-        return new CustomUserDetails(seller);
+        return new CustomUserDetails(credentials);
     }
 
 }
@@ -0,0 +1,242 @@
+package com.example.demo.services;
+
+import com.example.demo.dtos.BillingEventDTO;
+import com.example.demo.dtos.BillingResultDTO;
+import com.example.demo.dtos.CampaignDTO;
+import com.example.demo.entities.JournalCheckpoint;
+import com.example.demo.events.CampaignChangedEvent;
+import com.example.demo.exceptions.ServiceUnavailableException;
+import com.example.demo.journal.JournaledBuffer;
+import com.example.demo.journal.SegmentedJournal;
+import com.example.demo.repositories.CampaignRepository;
+import com.example.demo.repositories.JournalCheckpointRepository;
+import com.example.demo.repositories.projections.CampaignRow;
+import com.example.demo.search.CampaignSnapshot;
+import com.example.demo.search.CampaignSnapshotStore;
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.DoubleAdder;
+
+/**
+ * Charges campaigns for impressions and clicks. A click costs the campaign's {@code price}, an
+ * impression {@code price * app.billing.impression-charge-ratio}. Accepted charges are summed per
+ * campaign in striped {@link DoubleAdder}s in a {@link JournaledBuffer} (one journal write per
+ * ingested batch); every {@code app.billing.flush-interval} the sums are deducted from {@code fund} with one
+ * JDBC batch of {@code UPDATE}s, campaigns whose fund no longer covers a click are deactivated
+ * through {@link CampaignBulkService#setStatus}, and the journal segments are deleted.
+ * <p>
+ * The flush stores the number of the sealed journal segment in the same transaction as the
+ * deductions, so after a crash only segments that never reached the database are replayed and no
+ * charge is applied twice. An event is rejected when the campaign is unknown, inactive, or its
+ * fund minus the unflushed charges cannot cover it; concurrent batches may overshoot by a few
+ * charges, which the {@code UPDATE} caps at zero.
+ */
+@Service
+@Timed("app.service")
+public class CampaignBillingService {
+
+    private static final Logger log = LoggerFactory.getLogger(CampaignBillingService.class);
+    private static final String JOURNAL = "campaign-billing";
+
+    private final CampaignRepository campaignRepository;
+    private final CampaignBulkService campaignBulkService;
+    private final CampaignSnapshotStore campaignSnapshotStore;
+    private final JournalCheckpointRepository journalCheckpointRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final Path journalDirectory;
+    private final double impressionChargeRatio;
+
+    // Opened once the checkpoint can be read from the database.
+    private volatile JournaledBuffer<DoubleAdder> charges;
+    private volatile String journalEpoch;
+
+    public CampaignBillingService(CampaignRepository campaignRepository, CampaignBulkService campaignBulkService,
+                                  CampaignSnapshotStore campaignSnapshotStore,
+                                  JournalCheckpointRepository journalCheckpointRepository,
+                                  ApplicationEventPublisher eventPublisher, TransactionTemplate transactionTemplate,
+                                  JdbcTemplate jdbcTemplate,
+                                  @Value("${app.journal.directory:data/journal}") Path journalDirectory,
+                                  @Value("${app.billing.impression-charge-ratio:0.001}") double impressionChargeRatio) {
+        this.campaignRepository = campaignRepository;
+        this.campaignBulkService = campaignBulkService;
+        this.campaignSnapshotStore = campaignSnapshotStore;
+        this.journalCheckpointRepository = journalCheckpointRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.journalDirectory = journalDirectory;
+        this.impressionChargeRatio = impressionChargeRatio;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void openJournal() {
+        JournalCheckpoint stored = journalCheckpointRepository.findOrStart(JOURNAL);
+        long checkpoint = stored.getSegment();
+        SegmentedJournal opened = new SegmentedJournal(journalDirectory, JOURNAL, stored.getEpoch(), checkpoint + 1);
+        if (opened.discardedSegments() > 0) {
+            log.warn("Discarded {} journal segments of charges written for another database", opened.discardedSegments());
+        }
+        List<String> records = opened.recoverAfter(checkpoint);
+        opened.deleteUpTo(checkpoint);
+        JournaledBuffer<DoubleAdder> buffer = new JournaledBuffer<>(opened, (current, failed) -> {
+            current.add(failed.sum());
+            return current;
+        });
+        // Recovered charges are flushed with the next sealed segment, which covers their segments too.
+        Map<Long, DoubleAdder> recovered = new HashMap<>();
+        for (String record : records) {
+            int separator = record.indexOf(',');
+            recovered.computeIfAbsent(Long.parseLong(record.substring(0, separator)), id -> new DoubleAdder())
+                    .add(Double.parseDouble(record.substring(separator + 1)));
+        }
+        buffer.append(List.of(), pending -> pending.putAll(recovered));
+        journalEpoch = stored.getEpoch();
+        charges = buffer;
+        if (!records.isEmpty()) {
+            log.info("Recovered {} journaled charges for {} campaigns", records.size(), recovered.size());
+        }
+    }
+
+    public BillingResultDTO ingest(List<BillingEventDTO> events) {
+        JournaledBuffer<DoubleAdder> charges = this.charges;
+        CampaignSnapshot snapshot = campaignSnapshotStore.current();
+        if (charges == null || snapshot == null) {
+            throw new ServiceUnavailableException("Billing is not ready yet, retry later");
+        }
+
+        Map<Long, Double> accepted = new HashMap<>();
+        int acceptedEvents = 0;
+        double charged = 0;
+        for (BillingEventDTO event : events) {
+            long campaignId = event.campaignId();
+            int row = snapshot.rowOf(campaignId);
+            if (row < 0 || !snapshot.isActiveAt(row)) {
+                continue;
+            }
+            double price = snapshot.priceAt(row);
+            double charge = event.type() == BillingEventDTO.Type.CLICK ? price : price * impressionChargeRatio;
+            double inBatch = accepted.getOrDefault(campaignId, 0.0);
+            if (snapshot.fundAt(row) - unflushed(campaignId) - inBatch < charge) {
+                continue;
+            }
+            accepted.put(campaignId, inBatch + charge);
+            acceptedEvents++;
+            charged += charge;
+        }
+        if (accepted.isEmpty()) {
+            return new BillingResultDTO(0, events.size(), 0);
+        }
+
+        List<String> records = new ArrayList<>(accepted.size());
+        accepted.forEach((campaignId, amount) -> records.add(campaignId + "," + amount));
+        charges.append(records, pending -> accepted.forEach((campaignId, amount) ->
+                pending.computeIfAbsent(campaignId, id -> new DoubleAdder()).add(amount)));
+        return new BillingResultDTO(acceptedEvents, events.size() - acceptedEvents, charged);
+    }
+
+    /**
+     * Charges accepted for the campaign but not yet deducted in the database.
+     */
+    public double unflushed(long campaignId) {
+        JournaledBuffer<DoubleAdder> charges = this.charges;
+        if (charges == null) {
+            return 0;
+        }
+        DoubleAdder pending = charges.pending(campaignId);
+        DoubleAdder inFlight = charges.flushing(campaignId);
+        return (pending != null ? pending.sum() : 0) + (inFlight != null ? inFlight.sum() : 0);
+    }
+
+    @Scheduled(fixedDelayString = "${app.billing.flush-interval:1s}")
+    public void flush() {
+        JournaledBuffer<DoubleAdder> charges = this.charges;
+        if (charges == null) {
+            return;
+        }
+        try {
+            charges.flush((batch, sealedSegment) -> {
+                // Ascending IDs, like every other bulk writer, so row locks are always taken in the same order.
+                long[] campaignIds = batch.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+                double[] amounts = new double[campaignIds.length];
+                for (int i = 0; i < campaignIds.length; i++) {
+                    amounts[i] = batch.get(campaignIds[i]).sum();
+                }
+                return transactionTemplate.execute(tx -> deduct(campaignIds, amounts, sealedSegment));
+            }).filter(deactivated -> deactivated > 0)
+                    .ifPresent(deactivated -> log.info("Deactivated {} campaigns with exhausted funds", deactivated));
+        } catch (RuntimeException e) {
+            // Retried with the next flush, whose checkpoint also covers the segment sealed here.
+            log.warn("Flushing charges failed, retrying later", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        flush();
+        JournaledBuffer<DoubleAdder> charges = this.charges;
+        if (charges != null) {
+            charges.close();
+        }
+    }
+
+    // Runs in the flush transaction; returns the number of campaigns deactivated.
+    private int deduct(long[] campaignIds, double[] amounts, long sealedSegment) {
+        CampaignSnapshot snapshot = campaignSnapshotStore.current();
+        List<Long> exhausted = new ArrayList<>();
+        for (int from = 0; from < campaignIds.length; from += CampaignBulkService.CHUNK_SIZE) {
+            int to = Math.min(from + CampaignBulkService.CHUNK_SIZE, campaignIds.length);
+            int offset = from;
+            jdbcTemplate.batchUpdate("UPDATE campaign SET fund = GREATEST(fund - ?, 0), version = version + 1 WHERE id = ?",
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            ps.setDouble(1, amounts[offset + i]);
+                            ps.setLong(2, campaignIds[offset + i]);
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return to - offset;
+                        }
+                    });
+
+            List<Long> chunk = Arrays.stream(campaignIds, from, to).boxed().toList();
+            for (CampaignRow row : campaignRepository.findRowsByIdIn(chunk)) {
+                if (row.status() && row.fund() < row.price()) {
+                    exhausted.add(row.id());
+                }
+                if (snapshot != null) {
+                    snapshot.find(row.id()).ifPresent(previous -> eventPublisher.publishEvent(
+                            CampaignChangedEvent.fundChanged(previous, new CampaignDTO(previous.id(), previous.name(),
+                                    previous.keywordsNames(), previous.price(), row.fund(), previous.status(),
+                                    previous.city(), previous.sellerName()))));
+                }
+            }
+        }
+        journalCheckpointRepository.save(new JournalCheckpoint(JOURNAL, journalEpoch, sealedSegment));
+        return exhausted.isEmpty() ? 0 : campaignBulkService.setStatus(exhausted, false);
+    }
+}
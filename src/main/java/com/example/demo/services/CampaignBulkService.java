@@ -0,0 +1,217 @@
+package com.example.demo.services;
+
+import com.example.demo.dtos.BulkOperationResultDTO;
+import com.example.demo.dtos.CampaignDTO;
+import com.example.demo.entities.City;
+import com.example.demo.events.CampaignChangedEvent;
+import com.example.demo.exceptions.BadRequestException;
+import com.example.demo.exceptions.NotFoundException;
+import com.example.demo.repositories.CampaignRepository;
+import com.example.demo.repositories.SellerRepository;
+import com.example.demo.repositories.projections.CampaignKeywordRef;
+import com.example.demo.repositories.projections.CampaignRow;
+import io.micrometer.core.annotation.Timed;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Pause/resume and delete for many campaigns in one transaction. The affected rows are locked
+ * (in ID order) and read once as projections for the change events, then changed with set-based
+ * {@code UPDATE}/{@code DELETE} statements in chunks of {@link #CHUNK_SIZE} IDs; deleting refunds
+ * the remaining funds, less the charges not flushed by {@link CampaignBillingService} yet, with one
+ * balance update.
+ */
+@Service
+@Timed("app.service")
+@Transactional
+public class CampaignBulkService {
+
+    static final int CHUNK_SIZE = 1_000;
+
+    private final CampaignRepository campaignRepository;
+    private final SellerRepository sellerRepository;
+    private final CityCatalog cityCatalog;
+    private final SellerBalanceService sellerBalanceService;
+    private final ApplicationEventPublisher eventPublisher;
+    // Looked up lazily: the write-behind replays its journal through this service.
+    private final ObjectProvider<CampaignStatusWriteBehind> statusWriteBehind;
+    // Likewise: billing deactivates exhausted campaigns through this service.
+    private final ObjectProvider<CampaignBillingService> campaignBillingService;
+
+    public CampaignBulkService(CampaignRepository campaignRepository, SellerRepository sellerRepository,
+                               CityCatalog cityCatalog, SellerBalanceService sellerBalanceService,
+                               ApplicationEventPublisher eventPublisher,
+                               ObjectProvider<CampaignStatusWriteBehind> statusWriteBehind,
+                               ObjectProvider<CampaignBillingService> campaignBillingService) {
+        this.campaignRepository = campaignRepository;
+        this.sellerRepository = sellerRepository;
+        this.cityCatalog = cityCatalog;
+        this.sellerBalanceService = sellerBalanceService;
+        this.eventPublisher = eventPublisher;
+        this.statusWriteBehind = statusWriteBehind;
+        this.campaignBillingService = campaignBillingService;
+    }
+
+    public BulkOperationResultDTO updateStatus(String username, List<Long> ids, String cityName, boolean all,
+                                               boolean status) {
+        List<Long> campaignIds = lockSellerCampaigns(findSellerId(username), ids, cityName, all);
+        return new BulkOperationResultDTO(applyStatus(campaignIds, status), 0);
+    }
+
+    public BulkOperationResultDTO delete(String username, List<Long> ids, String cityName, boolean all) {
+        Long sellerId = findSellerId(username);
+        List<Long> campaignIds = lockSellerCampaigns(sellerId, ids, cityName, all);
+        List<CampaignDTO> deleted = loadCampaigns(campaignIds);
+
+        // Accepted charges are spent even before they are flushed; the flush then finds no row.
+        CampaignBillingService billing = campaignBillingService.getObject();
+        double refunded = 0;
+        for (CampaignDTO campaign : deleted) {
+            refunded += Math.max(0, campaign.fund() - billing.unflushed(campaign.id()));
+        }
+        for (List<Long> chunk : chunks(campaignIds)) {
+            campaignRepository.deleteKeywordLinksByCampaignIdIn(chunk);
+            campaignRepository.deleteByIdIn(chunk);
+        }
+        sellerBalanceService.deposit(sellerId, refunded);
+
+        deleted.forEach(campaign -> eventPublisher.publishEvent(CampaignChangedEvent.deleted(campaign)));
+        return new BulkOperationResultDTO(deleted.size(), refunded);
+    }
+
+    /**
+     * Sets the status of the given campaigns regardless of owner (system use, e.g. deactivating
+     * exhausted campaigns); unknown IDs and campaigns already in that status are skipped.
+     *
+     * @return the number of campaigns whose status changed
+     */
+    public int setStatus(Collection<Long> ids, boolean status) {
+        List<Long> campaignIds = new ArrayList<>();
+        for (List<Long> chunk : chunks(sortedDistinct(ids))) {
+            campaignIds.addAll(campaignRepository.lockIdsByIdIn(chunk));
+        }
+        return applyStatus(campaignIds, status);
+    }
+
+    /**
+     * Deactivates those of the given campaigns that are active and whose fund, less the charges not
+     * flushed yet, no longer covers their price. Checked on the locked rows, so a top-up or resume
+     * committed after the caller looked at the campaign is not undone.
+     *
+     * @return the number of campaigns deactivated
+     */
+    public int deactivateIfExhausted(Collection<Long> ids) {
+        List<Long> campaignIds = new ArrayList<>();
+        for (List<Long> chunk : chunks(sortedDistinct(ids))) {
+            campaignIds.addAll(campaignRepository.lockIdsByIdIn(chunk));
+        }
+        CampaignBillingService billing = campaignBillingService.getObject();
+        List<CampaignDTO> exhausted = withPendingStatus(loadCampaigns(campaignIds)).stream()
+                .filter(campaign -> campaign.status()
+                        && campaign.fund() - billing.unflushed(campaign.id()) < campaign.price())
+                .toList();
+        return applyStatus(exhausted, false);
+    }
+
+    // Expects the rows to be locked already.
+    private int applyStatus(List<Long> campaignIds, boolean status) {
+        return applyStatus(withPendingStatus(loadCampaigns(campaignIds)), status);
+    }
+
+    // A pending write-behind flip counts as the current status.
+    private List<CampaignDTO> withPendingStatus(List<CampaignDTO> campaigns) {
+        CampaignStatusWriteBehind writeBehind = statusWriteBehind.getIfAvailable();
+        return writeBehind == null ? campaigns : campaigns.stream().map(writeBehind::withPendingStatus).toList();
+    }
+
+    // Expects the campaigns to be locked and read with their pending status.
+    private int applyStatus(Collection<CampaignDTO> campaigns, boolean status) {
+        CampaignStatusWriteBehind writeBehind = statusWriteBehind.getIfAvailable();
+        List<CampaignDTO> changing = campaigns.stream()
+                .filter(campaign -> campaign.status() != status)
+                .toList();
+        if (changing.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> changingIds = changing.stream().map(CampaignDTO::id).toList();
+        for (List<Long> chunk : chunks(changingIds)) {
+            campaignRepository.updateStatusByIdIn(chunk, status);
+        }
+        if (writeBehind != null) {
+            changingIds.forEach(campaignId -> writeBehind.supersedePending(campaignId, status));
+        }
+
+        for (CampaignDTO previous : changing) {
+            CampaignDTO updated = new CampaignDTO(previous.id(), previous.name(), previous.keywordsNames(),
+                    previous.price(), previous.fund(), status, previous.city(), previous.sellerName());
+            eventPublisher.publishEvent(CampaignChangedEvent.statusChanged(previous, updated));
+        }
+        return changing.size();
+    }
+
+    private Long findSellerId(String username) {
+        return sellerRepository.findIdByUsername(username)
+                .orElseThrow(() -> new NotFoundException("Seller not found with username: " + username));
+    }
+
+    // Without a filter only an explicit "all" selects every campaign of the seller.
+    private List<Long> lockSellerCampaigns(Long sellerId, List<Long> ids, String cityName, boolean all) {
+        if (ids == null && cityName == null && !all) {
+            throw new BadRequestException("Select campaigns by ids or city, or set all to true");
+        }
+        long cityId = -1;
+        if (cityName != null) {
+            cityId = cityCatalog.findByName(cityName)
+                    .map(City::getId)
+                    .orElseThrow(() -> new NotFoundException("City not found with name: " + cityName));
+        }
+
+        if (ids == null) {
+            return campaignRepository.lockIdsBySeller(sellerId, cityId);
+        }
+        List<Long> campaignIds = new ArrayList<>();
+        for (List<Long> chunk : chunks(sortedDistinct(ids))) {
+            campaignIds.addAll(campaignRepository.lockIdsBySellerAndIdIn(sellerId, cityId, chunk));
+        }
+        return campaignIds;
+    }
+
+    private List<CampaignDTO> loadCampaigns(List<Long> campaignIds) {
+        List<CampaignDTO> campaigns = new ArrayList<>(campaignIds.size());
+        for (List<Long> chunk : chunks(campaignIds)) {
+            Map<Long, Set<String>> keywordsByCampaign = new HashMap<>();
+            for (CampaignKeywordRef ref : campaignRepository.findKeywordRefsByCampaignIds(chunk)) {
+                keywordsByCampaign.computeIfAbsent(ref.campaignId(), id -> new HashSet<>()).add(ref.keywordName());
+            }
+            for (CampaignRow row : campaignRepository.findRowsByIdIn(chunk)) {
+                campaigns.add(new CampaignDTO(row.id(), row.name(), keywordsByCampaign.getOrDefault(row.id(), Set.of()),
+                        row.price(), row.fund(), row.status(), row.cityName(), row.sellerName()));
+            }
+        }
+        return campaigns;
+    }
+
+    // Every caller locks in ascending ID order, also across chunks, so concurrent bulk operations cannot deadlock.
+    private static List<Long> sortedDistinct(Collection<Long> ids) {
+        return ids.stream().distinct().sorted().toList();
+    }
+
+    private static List<List<Long>> chunks(List<Long> ids) {
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+            chunks.add(ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size())));
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.demo.services;
+
+import com.example.demo.dtos.BulkImportResultDTO;
+import com.example.demo.dtos.CampaignDTO;
+import com.example.demo.dtos.CreateCampaignDTO;
+import com.example.demo.entities.Campaign;
+import com.example.demo.entities.City;
+import com.example.demo.entities.Keyword;
+import com.example.demo.entities.Seller;
+import com.example.demo.events.CampaignChangedEvent;
+import com.example.demo.exceptions.AlreadyExistsException;
+import com.example.demo.exceptions.BadRequestException;
+import com.example.demo.exceptions.InsufficientBalanceException;
+import com.example.demo.exceptions.NotFoundException;
+import com.example.demo.repositories.CampaignRepository;
+import com.example.demo.repositories.SellerRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Creates many campaigns for one seller in a single request. The whole cost is withdrawn up front
+ * with one balance update, then the campaigns are persisted in chunks of {@link #CHUNK_SIZE}, one
+ * transaction per chunk, so Hibernate can send them as JDBC batches and the persistence context
+ * stays small. If a chunk fails, the cost of everything not yet imported is refunded.
+ */
+@Service
+@Timed("app.service")
+public class CampaignImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(CampaignImportService.class);
+
+    static final int CHUNK_SIZE = 1_000;
+    private static final int NAME_CHECK_CHUNK_SIZE = 1_000;
+
+    private final CampaignRepository campaignRepository;
+    private final SellerRepository sellerRepository;
+    private final CityCatalog cityCatalog;
+    private final KeywordService keywordService;
+    private final SellerBalanceService sellerBalanceService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+
+    public CampaignImportService(CampaignRepository campaignRepository, SellerRepository sellerRepository,
+                                 CityCatalog cityCatalog, KeywordService keywordService,
+                                 SellerBalanceService sellerBalanceService, ApplicationEventPublisher eventPublisher,
+                                 EntityManager entityManager, TransactionTemplate transactionTemplate) {
+        this.campaignRepository = campaignRepository;
+        this.sellerRepository = sellerRepository;
+        this.cityCatalog = cityCatalog;
+        this.keywordService = keywordService;
+        this.sellerBalanceService = sellerBalanceService;
+        this.eventPublisher = eventPublisher;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    public BulkImportResultDTO importCampaigns(String username, List<CreateCampaignDTO> campaigns) {
+        long started = System.nanoTime();
+        Long sellerId = sellerRepository.findIdByUsername(username)
+                .orElseThrow(() -> new NotFoundException("Seller not found with username: " + username));
+
+        checkNamesAreNew(campaigns);
+        Map<String, City> cities = resolveCities(campaigns);
+        Map<String, Keyword> keywords = resolveKeywords(campaigns);
+
+        double totalCost = 0;
+        for (CreateCampaignDTO campaign : campaigns) {
+            totalCost += campaign.price() + campaign.fund();
+        }
+        if (!sellerBalanceService.tryWithdraw(sellerId, totalCost)) {
+            throw new InsufficientBalanceException("Insufficient balance for seller: " + username);
+        }
+
+        int imported = 0;
+        int transactions = 0;
+        try {
+            for (int from = 0; from < campaigns.size(); from += CHUNK_SIZE) {
+                List<CreateCampaignDTO> chunk = campaigns.subList(from, Math.min(from + CHUNK_SIZE, campaigns.size()));
+                transactionTemplate.executeWithoutResult(status -> persistChunk(sellerId, chunk, cities, keywords));
+                imported += chunk.size();
+                transactions++;
+            }
+        } catch (RuntimeException e) {
+            double notImportedCost = 0;
+            for (CreateCampaignDTO campaign : campaigns.subList(imported, campaigns.size())) {
+                notImportedCost += campaign.price() + campaign.fund();
+            }
+            sellerBalanceService.deposit(sellerId, notImportedCost);
+            throw e;
+        }
+
+        long durationNanos = System.nanoTime() - started;
+        double perSecond = imported / Math.max(durationNanos / 1e9, 1e-9);
+        log.info("Imported {} campaigns for {} in {} ms ({} transactions, {} campaigns/s)",
+                imported, username, durationNanos / 1_000_000, transactions, Math.round(perSecond));
+        return new BulkImportResultDTO(imported, transactions, durationNanos / 1_000_000, perSecond);
+    }
+
+    private void persistChunk(long sellerId, List<CreateCampaignDTO> chunk,
+                              Map<String, City> cities, Map<String, Keyword> keywords) {
+        Seller seller = sellerRepository.getReferenceById(sellerId);
+        String sellerName = seller.getUsername();
+        List<CampaignDTO> created = new ArrayList<>(chunk.size());
+        for (CreateCampaignDTO campaignDTO : chunk) {
+            Campaign campaign = Campaign.builder()
+                    .name(campaignDTO.name())
+                    .price(campaignDTO.price())
+                    .fund(campaignDTO.fund())
+                    .status(campaignDTO.status())
+                    .city(cities.get(campaignDTO.city()))
+                    .seller(seller)
+                    .build();
+            Set<String> keywordNames = new HashSet<>();
+            for (String name : campaignDTO.keywordsNames()) {
+                Keyword keyword = keywords.get(name.toLowerCase(Locale.ROOT));
+                if (keyword != null) {
+                    campaign.addKeyword(keyword);
+                    keywordNames.add(keyword.getName());
+                }
+            }
+            // The ID comes from the pooled sequence, no insert is needed to know it.
+            entityManager.persist(campaign);
+            created.add(new CampaignDTO(campaign.getId(), campaign.getName(), keywordNames, campaign.getPrice(),
+                    campaign.getFund(), campaign.isStatus(), campaign.getCity().getName(), sellerName));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        created.forEach(campaign -> eventPublisher.publishEvent(CampaignChangedEvent.created(campaign)));
+    }
+
+    private void checkNamesAreNew(List<CreateCampaignDTO> campaigns) {
+        Set<String> names = new LinkedHashSet<>();
+        for (CreateCampaignDTO campaign : campaigns) {
+            if (!names.add(campaign.name())) {
+                throw new BadRequestException("Duplicate campaign name in import: " + campaign.name());
+            }
+        }
+        List<String> allNames = new ArrayList<>(names);
+        for (int from = 0; from < allNames.size(); from += NAME_CHECK_CHUNK_SIZE) {
+            List<String> existing = campaignRepository.findExistingNames(
+                    allNames.subList(from, Math.min(from + NAME_CHECK_CHUNK_SIZE, allNames.size())));
+            if (!existing.isEmpty()) {
+                throw new AlreadyExistsException("Campaigns with names already exist: " + existing);
+            }
+        }
+    }
+
+    private Map<String, City> resolveCities(List<CreateCampaignDTO> campaigns) {
+        Map<String, City> cities = new HashMap<>();
+        for (CreateCampaignDTO campaign : campaigns) {
+            cities.computeIfAbsent(campaign.city(), name -> cityCatalog.findByName(name)
+                    .orElseThrow(() -> new NotFoundException("City not found with name: " + name)));
+        }
+        return cities;
+    }
+
+    private Map<String, Keyword> resolveKeywords(List<CreateCampaignDTO> campaigns) {
+        Set<String> names = new HashSet<>();
+        for (CreateCampaignDTO campaign : campaigns) {
+            names.addAll(campaign.keywordsNames());
+        }
+        Map<String, Keyword> keywords = new HashMap<>();
+        for (Keyword keyword : keywordService.findKeywordsByNames(names)) {
+            keywords.put(keyword.getName().toLowerCase(Locale.ROOT), keyword);
+        }
+        return keywords;
+    }
+}
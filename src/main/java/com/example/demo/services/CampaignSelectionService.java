@@ -0,0 +1,215 @@
+package com.example.demo.services;
+
+import com.example.demo.dtos.CampaignDTO;
+import com.example.demo.dtos.SelectedCampaignDTO;
+import com.example.demo.entities.City;
+import com.example.demo.exceptions.BadRequestException;
+import com.example.demo.exceptions.NotFoundException;
+import com.example.demo.search.ActiveCampaignIndex;
+import com.example.demo.search.CampaignSnapshot;
+import com.example.demo.search.CampaignSnapshotStore;
+import com.example.demo.search.GeoMath;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Picks the campaigns to show for a (city, radius, keywords) request: the top {@code limit}
+ * active campaigns by
+ * <pre>
+ * score = price * min(1, fund / (price * fundHorizon)) / (1 + distanceKm / distanceHalfKm)
+ * </pre>
+ * i.e. the bid, damped for campaigns that can pay for fewer than {@code fundHorizon} more
+ * charges and halved at {@code distanceHalfKm} from the search city. Campaigns whose fund does not
+ * cover one charge are skipped.
+ * <p>
+ * Candidates are streamed from the {@link ActiveCampaignIndex} with their distance and scored
+ * from the {@link CampaignSnapshot} columns into a bounded heap, so a selection builds DTOs only
+ * for the campaigns it returns, however many match.
+ */
+@Service
+@Timed("app.service")
+public class CampaignSelectionService {
+
+    public static final int DEFAULT_LIMIT = 10;
+    public static final int MAX_LIMIT = 100;
+
+    private final CityCatalog cityCatalog;
+    private final ActiveCampaignIndex activeCampaignIndex;
+    private final CampaignSnapshotStore campaignSnapshotStore;
+    private final CampaignService campaignService;
+    private final double fundHorizon;
+    private final double distanceHalfKm;
+
+    public CampaignSelectionService(CityCatalog cityCatalog, ActiveCampaignIndex activeCampaignIndex,
+                                    CampaignSnapshotStore campaignSnapshotStore, CampaignService campaignService,
+                                    @Value("${app.selection.fund-horizon:100}") double fundHorizon,
+                                    @Value("${app.selection.distance-half-km:25}") double distanceHalfKm) {
+        this.cityCatalog = cityCatalog;
+        this.activeCampaignIndex = activeCampaignIndex;
+        this.campaignSnapshotStore = campaignSnapshotStore;
+        this.campaignService = campaignService;
+        this.fundHorizon = fundHorizon;
+        this.distanceHalfKm = distanceHalfKm;
+    }
+
+    public List<SelectedCampaignDTO> select(String searchCityName, double searchRadius, List<String> keywords,
+                                            Integer limit) {
+        int size = limit != null ? limit : DEFAULT_LIMIT;
+        if (size <= 0) {
+            throw new BadRequestException("Limit must be greater than zero");
+        }
+        City searchCity = cityCatalog.findByName(searchCityName)
+                .orElseThrow(() -> new NotFoundException("Search city not found: " + searchCityName));
+        TopCampaigns top = new TopCampaigns(Math.min(size, MAX_LIMIT));
+
+        CampaignSnapshot snapshot = campaignSnapshotStore.current();
+        if (snapshot == null || !activeCampaignIndex.isReady()) {
+            return selectFromSearch(searchCity, searchRadius, keywords, top);
+        }
+        activeCampaignIndex.forEachCampaignNearCity(searchCity, searchRadius, keywords, (campaignId, distanceKm) -> {
+            int row = snapshot.rowOf(campaignId);
+            if (row >= 0 && snapshot.isActiveAt(row)) {
+                offer(top, row, snapshot.priceAt(row), snapshot.fundAt(row), distanceKm);
+            }
+        });
+
+        List<SelectedCampaignDTO> selected = new ArrayList<>(top.size());
+        top.drainBestFirst((row, distanceKm, score) ->
+                selected.add(new SelectedCampaignDTO(snapshot.campaignAt((int) row), distanceKm, score)));
+        return selected;
+    }
+
+    // Until the index and snapshot are built: rank the regular search results, same scoring.
+    private List<SelectedCampaignDTO> selectFromSearch(City searchCity, double searchRadius, List<String> keywords,
+                                                       TopCampaigns top) {
+        List<CampaignDTO> candidates = keywords == null || keywords.isEmpty()
+                ? campaignService.findActiveCampaignsNearSearchLocation(searchCity.getName(), searchRadius)
+                : campaignService.findActiveCampaignsNearSearchLocationByKeywords(searchCity.getName(), searchRadius, keywords);
+        for (int i = 0; i < candidates.size(); i++) {
+            CampaignDTO campaign = candidates.get(i);
+            double distanceKm = cityCatalog.findByName(campaign.city())
+                    .map(city -> GeoMath.distanceKm(searchCity.getLatitude(), searchCity.getLongitude(),
+                            city.getLatitude(), city.getLongitude()))
+                    .orElse(searchRadius);
+            offer(top, i, campaign.price(), campaign.fund(), distanceKm);
+        }
+
+        List<SelectedCampaignDTO> selected = new ArrayList<>(top.size());
+        top.drainBestFirst((i, distanceKm, score) ->
+                selected.add(new SelectedCampaignDTO(candidates.get((int) i), distanceKm, score)));
+        return selected;
+    }
+
+    private void offer(TopCampaigns top, long key, double price, double fund, double distanceKm) {
+        if (price <= 0 || fund < price) {
+            return;
+        }
+        double pacing = Math.min(1, fund / (price * fundHorizon));
+        top.offer(key, distanceKm, price * pacing / (1 + distanceKm / distanceHalfKm));
+    }
+
+    @FunctionalInterface
+    interface SelectionConsumer {
+
+        void accept(long key, double distanceKm, double score);
+    }
+
+    /**
+     * Bounded min-heap on parallel primitive arrays: the worst kept candidate is at the root, so
+     * a candidate that does not beat it is rejected with one comparison. Equal scores prefer the
+     * smaller key (campaign ID order), which keeps selections stable.
+     */
+    static final class TopCampaigns {
+
+        private final long[] keys;
+        private final double[] distances;
+        private final double[] scores;
+        private int size;
+
+        TopCampaigns(int capacity) {
+            keys = new long[capacity];
+            distances = new double[capacity];
+            scores = new double[capacity];
+        }
+
+        int size() {
+            return size;
+        }
+
+        void offer(long key, double distanceKm, double score) {
+            if (size < keys.length) {
+                set(size, key, distanceKm, score);
+                siftUp(size++);
+            } else if (worse(0, key, score)) {
+                set(0, key, distanceKm, score);
+                siftDown(0);
+            }
+        }
+
+        // Empties the heap worst-first into its own tail, then hands out the tail best-first.
+        void drainBestFirst(SelectionConsumer consumer) {
+            int count = size;
+            while (size > 1) {
+                swap(0, --size);
+                siftDown(0);
+            }
+            size = 0;
+            for (int i = 0; i < count; i++) {
+                consumer.accept(keys[i], distances[i], scores[i]);
+            }
+        }
+
+        // True when the entry at i ranks below the given candidate.
+        private boolean worse(int i, long key, double score) {
+            return scores[i] < score || scores[i] == score && keys[i] > key;
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!worse(i, keys[parent], scores[parent])) {
+                    return;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int worst = i;
+                int left = 2 * i + 1;
+                int right = left + 1;
+                if (left < size && worse(left, keys[worst], scores[worst])) {
+                    worst = left;
+                }
+                if (right < size && worse(right, keys[worst], scores[worst])) {
+                    worst = right;
+                }
+                if (worst == i) {
+                    return;
+                }
+                swap(i, worst);
+                i = worst;
+            }
+        }
+
+        private void set(int i, long key, double distanceKm, double score) {
+            keys[i] = key;
+            distances[i] = distanceKm;
+            scores[i] = score;
+        }
+
+        private void swap(int i, int j) {
+            long key = keys[i];
+            double distanceKm = distances[i];
+            double score = scores[i];
+            set(i, keys[j], distances[j], scores[j]);
+            set(j, key, distanceKm, score);
+        }
+    }
+}
@@ -1,38 +1,89 @@
 package com.example.demo.services;
 
 import com.example.demo.dtos.CampaignDTO;
+import com.example.demo.dtos.CampaignPageDTO;
 import com.example.demo.dtos.CreateCampaignDTO;
 import com.example.demo.entities.Campaign;
 import com.example.demo.entities.City;
 import com.example.demo.entities.Keyword;
-import com.example.demo.entities.Seller;
+import com.example.demo.events.CampaignChangedEvent;
+import com.example.demo.exceptions.BadRequestException;
 import com.example.demo.exceptions.InsufficientBalanceException;
 import com.example.demo.exceptions.NotFoundException;
 import com.example.demo.repositories.CampaignRepository;
-import com.example.demo.repositories.CityRepository;
 import com.example.demo.repositories.SellerRepository;
+import com.example.demo.repositories.projections.CampaignKeywordRef;
+import com.example.demo.search.ActiveCampaignIndex;
+import com.example.demo.search.CampaignSnapshot;
+import com.example.demo.search.CampaignSnapshotStore;
+import com.example.demo.search.CityDistanceMatrix;
+import com.example.demo.search.SearchResultCache;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
+@Timed("app.service")
 public class CampaignService {
 
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 1000;
+    private static final int STREAM_CHUNK_SIZE = 500;
+
     private final CampaignRepository campaignRepository;
     private final SellerRepository sellerRepository;
-    private final CityRepository cityRepository;
+    private final CityCatalog cityCatalog;
     private final KeywordService keywordService;
+    private final SellerBalanceService sellerBalanceService;
+    private final ActiveCampaignIndex activeCampaignIndex;
+    private final CityDistanceMatrix cityDistanceMatrix;
+    private final SearchResultCache searchResultCache;
+    private final CampaignSnapshotStore campaignSnapshotStore;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Optional<CampaignStatusWriteBehind> statusWriteBehind;
+    private final CampaignBillingService campaignBillingService;
 
     public CampaignService(CampaignRepository campaignRepository, SellerRepository sellerRepository,
-                           CityRepository cityRepository, KeywordService keywordService) {
+                           CityCatalog cityCatalog, KeywordService keywordService,
+                           SellerBalanceService sellerBalanceService, ActiveCampaignIndex activeCampaignIndex,
+                           CityDistanceMatrix cityDistanceMatrix, SearchResultCache searchResultCache,
+                           CampaignSnapshotStore campaignSnapshotStore, ApplicationEventPublisher eventPublisher,
+                           EntityManager entityManager, TransactionTemplate transactionTemplate,
+                           Optional<CampaignStatusWriteBehind> statusWriteBehind,
+                           CampaignBillingService campaignBillingService) {
         this.campaignRepository = campaignRepository;
         this.sellerRepository = sellerRepository;
-        this.cityRepository = cityRepository;
+        this.cityCatalog = cityCatalog;
         this.keywordService = keywordService;
+        this.sellerBalanceService = sellerBalanceService;
+        this.activeCampaignIndex = activeCampaignIndex;
+        this.cityDistanceMatrix = cityDistanceMatrix;
+        this.searchResultCache = searchResultCache;
+        this.campaignSnapshotStore = campaignSnapshotStore;
+        this.eventPublisher = eventPublisher;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.statusWriteBehind = statusWriteBehind;
+        this.campaignBillingService = campaignBillingService;
     }
 
     @Transactional
@@ -57,26 +108,29 @@ public class CampaignService {
                 .collect(Collectors.toList());
     }
 
+    @Transactional
+    public CampaignPageDTO findAllByUsername(String username, Long after, Integer limit) {
+        PageRequest page = pageRequest(limit);
+        return toPage(campaignRepository.findIdsBySellerUsernameAfter(username, cursor(after), page), page);
+    }
+
     @Transactional
     public CampaignDTO createCampaign(String username, CreateCampaignDTO campaignDTO) {
-        Seller seller = sellerRepository.findByUsername(username)
+        Long sellerId = sellerRepository.findIdByUsername(username)
                 .orElseThrow(() -> new NotFoundException("Seller not found with username: " + username));
 
         if (campaignRepository.findByName(campaignDTO.name()).isPresent()) {
             throw new IllegalArgumentException("Campaign with name already exists: " + campaignDTO.name());
         }
 
-        if (seller.getBalance() < campaignDTO.price() + campaignDTO.fund()) {
-            throw new InsufficientBalanceException("Insufficient balance for seller: " + username);
-        }
-
-        City city = cityRepository.findByName(campaignDTO.city())
+        City city = cityCatalog.findByName(campaignDTO.city())
                 .orElseThrow(() -> new NotFoundException("City not found with name: " + campaignDTO.city()));
 
         Set<Keyword> keywordEntities = keywordService.findKeywordsByNames(campaignDTO.keywordsNames());
 
-        seller.setBalance(seller.getBalance() - (campaignDTO.price() + campaignDTO.fund()));
-        sellerRepository.flush();
+        if (!sellerBalanceService.tryWithdraw(sellerId, campaignDTO.price() + campaignDTO.fund())) {
+            throw new InsufficientBalanceException("Insufficient balance for seller: " + username);
+        }
 
         Campaign campaign = Campaign.builder()
                 .name(campaignDTO.name())
@@ -84,7 +138,7 @@ public class CampaignService {
                 .fund(campaignDTO.fund())
                 .status(campaignDTO.status())
                 .city(city)
-                .seller(seller)
+                .seller(sellerRepository.getReferenceById(sellerId))
                 .build();
 
         for (Keyword keyword : keywordEntities) {
@@ -93,7 +147,9 @@ public class CampaignService {
 
         campaignRepository.save(campaign);
 
-        return CampaignDTO.fromEntity(campaign);
+        CampaignDTO created = CampaignDTO.fromEntity(campaign);
+        eventPublisher.publishEvent(CampaignChangedEvent.created(created));
+        return created;
     }
 
     @Transactional
@@ -112,11 +168,102 @@ public class CampaignService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * The columnar snapshot the public list endpoints serialize from; empty until it is built, in
+     * which case callers fall back to {@link #findAll()} / {@link #findByCity(String)}.
+     */
+    public Optional<CampaignSnapshot> campaignSnapshot() {
+        return Optional.ofNullable(campaignSnapshotStore.current());
+    }
+
+    @Transactional
+    public CampaignPageDTO findByCity(String cityName, Long after, Integer limit) {
+        PageRequest page = pageRequest(limit);
+        return toPage(campaignRepository.findIdsByCityNameAfter(cityName, cursor(after), page), page);
+    }
+
+    @Transactional
+    public CampaignPageDTO findAll(Long after, Integer limit) {
+        PageRequest page = pageRequest(limit);
+        return toPage(campaignRepository.findIdsAfter(cursor(after), page), page);
+    }
+
+    @Transactional
+    public void streamAll(Consumer<CampaignDTO> consumer) {
+        try (Stream<Campaign> campaigns = campaignRepository.streamAll()) {
+            forEachInChunks(campaigns, consumer);
+        }
+    }
+
+    @Transactional
+    public void streamByCity(String cityName, Consumer<CampaignDTO> consumer) {
+        try (Stream<Campaign> campaigns = campaignRepository.streamAllByCityName(cityName)) {
+            forEachInChunks(campaigns, consumer);
+        }
+    }
+
+    private static long cursor(Long after) {
+        return after != null ? after : 0L;
+    }
+
+    private static PageRequest pageRequest(Integer limit) {
+        int size = limit != null ? limit : DEFAULT_PAGE_SIZE;
+        if (size <= 0) {
+            throw new BadRequestException("Limit must be greater than zero");
+        }
+        return PageRequest.ofSize(Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    private CampaignPageDTO toPage(List<Long> campaignIds, PageRequest page) {
+        if (campaignIds.isEmpty()) {
+            return new CampaignPageDTO(new ArrayList<>(), null);
+        }
+        List<CampaignDTO> items = campaignRepository.findAllByIdIn(campaignIds)
+                .stream()
+                .sorted(Comparator.comparing(Campaign::getId))
+                .map(CampaignDTO::fromEntity)
+                .collect(Collectors.toList());
+        Long nextCursor = campaignIds.size() == page.getPageSize() ? campaignIds.get(campaignIds.size() - 1) : null;
+        return new CampaignPageDTO(items, nextCursor);
+    }
+
+    // Keywords are loaded per chunk and the persistence context is cleared after every chunk,
+    // so memory stays flat no matter how many rows the stream walks through.
+    private void forEachInChunks(Stream<Campaign> campaigns, Consumer<CampaignDTO> consumer) {
+        List<Campaign> chunk = new ArrayList<>(STREAM_CHUNK_SIZE);
+        Iterator<Campaign> iterator = campaigns.iterator();
+        while (iterator.hasNext()) {
+            chunk.add(iterator.next());
+            if (chunk.size() == STREAM_CHUNK_SIZE) {
+                emitChunk(chunk, consumer);
+            }
+        }
+        emitChunk(chunk, consumer);
+    }
+
+    private void emitChunk(List<Campaign> chunk, Consumer<CampaignDTO> consumer) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<Long> campaignIds = chunk.stream().map(Campaign::getId).collect(Collectors.toList());
+        Map<Long, Set<String>> keywordsByCampaign = new HashMap<>();
+        for (CampaignKeywordRef ref : campaignRepository.findKeywordRefsByCampaignIds(campaignIds)) {
+            keywordsByCampaign.computeIfAbsent(ref.campaignId(), id -> new HashSet<>()).add(ref.keywordName());
+        }
+        for (Campaign campaign : chunk) {
+            consumer.accept(CampaignDTO.fromEntity(campaign, keywordsByCampaign.getOrDefault(campaign.getId(), Set.of())));
+        }
+        chunk.clear();
+        entityManager.clear();
+    }
+
     @Transactional
     public void deleteById(Long id) {
         Campaign campaign = campaignRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException("Campaign not found with id: " + id));
+        CampaignDTO deleted = CampaignDTO.fromEntity(campaign);
         campaignRepository.delete(campaign);
+        eventPublisher.publishEvent(CampaignChangedEvent.deleted(deleted));
     }
 
     @Transactional
@@ -137,35 +284,33 @@ public class CampaignService {
 
     @Transactional
     public CampaignDTO updateCampaign(String username, long id, CreateCampaignDTO campaignDTO) {
-        Campaign existingCampaign = campaignRepository.findBySeller_UsernameAndId(username, id)
+        Campaign existingCampaign = campaignRepository.findBySellerUsernameAndIdForUpdate(username, id)
                 .orElseThrow(() -> new NotFoundException("Campaign not found or you are not authorized with id: " + id));
+        CampaignDTO previous = withPendingStatus(CampaignDTO.fromEntity(existingCampaign));
 
-        double oldFund = existingCampaign.getFund();
+        // Charges accepted but not flushed yet are already spent: the seller sets the fund that
+        // remains after them, and the row keeps them on top until the flush deducts them.
+        double unflushed = campaignBillingService.unflushed(id);
+        double oldFund = Math.max(0, existingCampaign.getFund() - unflushed);
         double newFund = campaignDTO.fund();
         double fundDifference = newFund - oldFund;
-
-        Seller seller = sellerRepository.findById(existingCampaign.getSeller().getId())
-                .orElseThrow(() -> new NotFoundException("Seller not found for campaign with id: " + id));
+        long sellerId = existingCampaign.getSeller().getId();
 
         if (fundDifference > 0) {
-            if (seller.getBalance() < fundDifference) {
+            if (!sellerBalanceService.tryWithdraw(sellerId, fundDifference)) {
                 throw new InsufficientBalanceException("Insufficient balance to increase campaign fund. Required: " + fundDifference);
             }
-            seller.setBalance(seller.getBalance() - fundDifference);
         } else {
-            seller.setBalance(seller.getBalance() + Math.abs(fundDifference));
+            sellerBalanceService.deposit(sellerId, Math.abs(fundDifference));
         }
 
-        sellerRepository.save(seller);
-        sellerRepository.flush();
-
         existingCampaign.setName(campaignDTO.name());
         //existingCampaign.setPrice(campaignDTO.price());
-        existingCampaign.setFund(newFund);
-        existingCampaign.setStatus(campaignDTO.status() != null ? campaignDTO.status() : existingCampaign.isStatus());
+        existingCampaign.setFund(newFund + unflushed);
+        existingCampaign.setStatus(campaignDTO.status() != null ? campaignDTO.status() : previous.status());
 
         if (!existingCampaign.getCity().getName().equals(campaignDTO.city())) {
-            City city = cityRepository.findByName(campaignDTO.city())
+            City city = cityCatalog.findByName(campaignDTO.city())
                     .orElseThrow(() -> new NotFoundException("City not found with name: " + campaignDTO.city()));
             existingCampaign.setCity(city);
         }
@@ -185,41 +330,75 @@ public class CampaignService {
         }
 
         Campaign updatedCampaign = campaignRepository.save(existingCampaign);
+        statusWriteBehind.ifPresent(writeBehind -> writeBehind.supersedePending(id, updatedCampaign.isStatus()));
 
-        return CampaignDTO.fromEntity(updatedCampaign);
+        CampaignDTO updated = CampaignDTO.fromEntity(updatedCampaign);
+        eventPublisher.publishEvent(CampaignChangedEvent.updated(previous, updated));
+        return updated;
     }
 
-    @Transactional
+    // Not @Transactional: with write-behind enabled the flip is acknowledged without a connection.
     public CampaignDTO updateCampaignStatus(String username, long id, boolean status) {
-        Campaign campaign = campaignRepository.findBySeller_UsernameAndId(username, id)
+        Optional<CampaignDTO> accepted = statusWriteBehind
+                .flatMap(writeBehind -> writeBehind.updateStatus(username, id, status));
+        if (accepted.isPresent()) {
+            return accepted.get();
+        }
+        return transactionTemplate.execute(tx -> updateCampaignStatusNow(username, id, status));
+    }
+
+    // Locks the row like updateCampaign, so a concurrent fund or status change cannot slip in between.
+    private CampaignDTO updateCampaignStatusNow(String username, long id, boolean status) {
+        Campaign campaign = campaignRepository.findBySellerUsernameAndIdForUpdate(username, id)
                 .orElseThrow(() -> new NotFoundException("Campaign not found or you are not authorized with id: " + id));
+        CampaignDTO previous = withPendingStatus(CampaignDTO.fromEntity(campaign));
 
         campaign.setStatus(status);
 
         Campaign updatedCampaign = campaignRepository.save(campaign);
-        return CampaignDTO.fromEntity(updatedCampaign);
+        statusWriteBehind.ifPresent(writeBehind -> writeBehind.supersedePending(id, status));
+        CampaignDTO updated = CampaignDTO.fromEntity(updatedCampaign);
+        eventPublisher.publishEvent(CampaignChangedEvent.statusChanged(previous, updated));
+        return updated;
     }
 
     @Transactional
     public void deleteCampaign(String username, long id) {
-        Campaign campaign = campaignRepository.findById(id)
+        Campaign campaign = campaignRepository.findByIdForUpdate(id)
                 .orElseThrow(() -> new NotFoundException("Campaign not found with id: " + id));
 
         if (!campaign.getSeller().getUsername().equals(username)) {
             throw new IllegalArgumentException("You are not authorized to delete this campaign");
         }
 
-        Seller seller = campaign.getSeller();
-        seller.setBalance(seller.getBalance() + campaign.getFund());
-        sellerRepository.save(seller);
+        // Accepted charges are spent even before they are flushed; the flush then finds no row.
+        double unflushed = campaignBillingService.unflushed(id);
+        sellerBalanceService.deposit(campaign.getSeller().getId(), Math.max(0, campaign.getFund() - unflushed));
 
+        CampaignDTO deleted = CampaignDTO.fromEntity(campaign);
         campaignRepository.delete(campaign);
+        eventPublisher.publishEvent(CampaignChangedEvent.deleted(deleted));
     }
 
     @Transactional
     public CampaignDTO findByUsernameAndId(String username, long id) {
         return campaignRepository.findBySeller_UsernameAndId(username, id)
                 .map(CampaignDTO::fromEntity)
+                .map(this::withPendingStatus)
+                .orElseThrow(() -> new NotFoundException("Campaign not found with id: " + id));
+    }
+
+    /**
+     * A status accepted by the write-behind but not written yet; the row's version moves only with
+     * the flush, so a campaign ETag has to include it.
+     */
+    public Optional<Boolean> findPendingStatus(long id) {
+        return statusWriteBehind.flatMap(writeBehind -> writeBehind.pendingStatus(id));
+    }
+
+    // One scalar query, so a conditional GET can be answered before the campaign is loaded.
+    public long findVersionByUsernameAndId(String username, long id) {
+        return campaignRepository.findVersionBySellerUsernameAndId(username, id)
                 .orElseThrow(() -> new NotFoundException("Campaign not found with id: " + id));
     }
 
@@ -227,38 +406,79 @@ public class CampaignService {
     public boolean getStatusByUsernameAndCampaignId(String username, Long campaignId) {
         Campaign campaign = campaignRepository.findBySeller_UsernameAndId(username, campaignId)
                 .orElseThrow(() -> new NotFoundException("Campaign not found with id: " + campaignId));
-        return campaign.isStatus();
+        return statusWriteBehind.flatMap(writeBehind -> writeBehind.pendingStatus(campaignId))
+                .orElse(campaign.isStatus());
     }
 
-    @Transactional
+    private CampaignDTO withPendingStatus(CampaignDTO campaign) {
+        return statusWriteBehind.map(writeBehind -> writeBehind.withPendingStatus(campaign)).orElse(campaign);
+    }
+
+    // Not @Transactional: a cache hit needs no connection, a miss reads through the repositories.
     public List<CampaignDTO> findActiveCampaignsNearSearchLocation(String searchCityName, double searchRadius) {
-        City searchCity = cityRepository.findByName(searchCityName)
+        City searchCity = cityCatalog.findByName(searchCityName)
                 .orElseThrow(() -> new NotFoundException("Search city not found: " + searchCityName));
 
-        List<Campaign> campaigns = campaignRepository.findActiveCampaignsNearSearchLocation(
-                searchCity.getLatitude(),
-                searchCity.getLongitude(),
-                searchRadius // Przekazanie searchRadius
-        );
+        return searchResultCache.get(searchCity, searchRadius, null,
+                radius -> loadActiveCampaignsNear(searchCity, radius));
+    }
 
-        return campaigns.stream()
-                .map(CampaignDTO::fromEntity)
-                .collect(Collectors.toList());
+    private List<CampaignDTO> loadActiveCampaignsNear(City searchCity, double searchRadius) {
+        List<Long> campaignIds;
+        if (activeCampaignIndex.isReady()) {
+            campaignIds = activeCampaignIndex.findCampaignIdsNearCity(searchCity, searchRadius);
+        } else {
+            List<Long> cityIds = cityDistanceMatrix.cityIdsWithin(searchCity.getId(), searchRadius);
+            campaignIds = cityIds.isEmpty()
+                    ? campaignRepository.findActiveCampaignIdsNearSearchLocation(
+                            searchCity.getLatitude(),
+                            searchCity.getLongitude(),
+                            searchRadius // Przekazanie searchRadius
+                    )
+                    : campaignRepository.findActiveCampaignIdsByCityIdIn(cityIds);
+        }
+
+        return findActiveByIds(campaignIds);
     }
 
-    @Transactional
     public List<CampaignDTO> findActiveCampaignsNearSearchLocationByKeywords(String searchCityName, double searchRadius, List<String> keywords) {
-        City searchCity = cityRepository.findByName(searchCityName)
+        City searchCity = cityCatalog.findByName(searchCityName)
                 .orElseThrow(() -> new NotFoundException("Search city not found: " + searchCityName));
 
-        List<Campaign> campaigns = campaignRepository.findActiveCampaignsNearSearchLocationByKeywords(
-                searchCity.getLatitude(),
-                searchCity.getLongitude(),
-                searchRadius,
-                keywords
-        );
+        return searchResultCache.get(searchCity, searchRadius, keywords,
+                radius -> loadActiveCampaignsNear(searchCity, radius, keywords));
+    }
 
-        return campaigns.stream()
+    private List<CampaignDTO> loadActiveCampaignsNear(City searchCity, double searchRadius, List<String> keywords) {
+        List<Long> campaignIds;
+        if (activeCampaignIndex.isReady()) {
+            campaignIds = activeCampaignIndex.findCampaignIdsNearCity(searchCity, searchRadius, keywords);
+        } else {
+            List<Long> cityIds = cityDistanceMatrix.cityIdsWithin(searchCity.getId(), searchRadius);
+            campaignIds = cityIds.isEmpty()
+                    ? campaignRepository.findActiveCampaignIdsNearSearchLocationByKeywords(
+                            searchCity.getLatitude(),
+                            searchCity.getLongitude(),
+                            searchRadius,
+                            keywords
+                    )
+                    : campaignRepository.findActiveCampaignIdsByCityIdInAndKeywords(cityIds, keywords);
+        }
+
+        return findActiveByIds(campaignIds);
+    }
+
+    private List<CampaignDTO> findActiveByIds(List<Long> campaignIds) {
+        if (campaignIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        CampaignSnapshot snapshot = campaignSnapshotStore.current();
+        if (snapshot != null) {
+            return snapshot.findActive(campaignIds);
+        }
+        return campaignRepository.findAllByIdIn(campaignIds)
+                .stream()
+                .filter(Campaign::isStatus)
                 .map(CampaignDTO::fromEntity)
                 .collect(Collectors.toList());
     }
@@ -0,0 +1,248 @@
+package com.example.demo.services;
+
+import com.example.demo.dtos.CampaignDTO;
+import com.example.demo.entities.JournalCheckpoint;
+import com.example.demo.events.CampaignChangedEvent;
+import com.example.demo.exceptions.NotFoundException;
+import com.example.demo.feed.CampaignOutboxWriter;
+import com.example.demo.journal.JournaledBuffer;
+import com.example.demo.journal.SegmentedJournal;
+import com.example.demo.repositories.CampaignRepository;
+import com.example.demo.repositories.JournalCheckpointRepository;
+import com.example.demo.search.CampaignSnapshot;
+import com.example.demo.search.CampaignSnapshotStore;
+import com.example.demo.search.ResourceVersions;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Write-behind for {@code PATCH /campaigns/{id}/status}, enabled with
+ * {@code app.status-write-behind.enabled=true}. A flip is checked against the
+ * {@link CampaignSnapshotStore}, added to a {@link JournaledBuffer}, published as a
+ * {@link CampaignChangedEvent} (so the snapshot, index and search cache change at once) and
+ * acknowledged without touching the database. Every {@code flush-interval} the pending flips,
+ * coalesced to the latest status per campaign, are written with at most two {@code UPDATE ... IN}
+ * statements per 1000 campaigns, together with their change feed entries (one batch through
+ * {@link CampaignOutboxWriter#writeAll}), and the journal segments they came from are deleted. Segments
+ * left behind by a crash are replayed through {@link CampaignBulkService#setStatus} on startup, unless
+ * they were written for another schema (see {@link JournalCheckpoint}).
+ * <p>
+ * Reads that go to the database (paged lists) may show the old status until the next flush;
+ * {@code GET /campaigns/{id}} applies {@link #pendingStatus} and tags it in its ETag. Synchronous status writers ({@link CampaignService#updateCampaign},
+ * {@link CampaignBulkService}) read through {@link #withPendingStatus} and call
+ * {@link #supersedePending}, so a flip accepted before their write cannot overwrite it when flushed.
+ */
+@Component
+@ConditionalOnProperty(name = "app.status-write-behind.enabled", havingValue = "true")
+public class CampaignStatusWriteBehind {
+
+    private static final Logger log = LoggerFactory.getLogger(CampaignStatusWriteBehind.class);
+    private static final int LOCK_STRIPES = 64;
+    private static final String JOURNAL = "campaign-status";
+
+    private final CampaignRepository campaignRepository;
+    private final CampaignBulkService campaignBulkService;
+    private final CampaignSnapshotStore campaignSnapshotStore;
+    private final ResourceVersions resourceVersions;
+    private final CampaignOutboxWriter campaignOutboxWriter;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final SegmentedJournal journal;
+    // A flip that failed to flush goes back only if no newer one was accepted meanwhile.
+    private final JournaledBuffer<Boolean> flips;
+    // Serializes check-then-publish per campaign, so events and pending flips agree on the order.
+    private final Object[] campaignLocks = new Object[LOCK_STRIPES];
+
+    public CampaignStatusWriteBehind(CampaignRepository campaignRepository, CampaignBulkService campaignBulkService,
+                                     CampaignSnapshotStore campaignSnapshotStore, ResourceVersions resourceVersions,
+                                     CampaignOutboxWriter campaignOutboxWriter,
+                                     ApplicationEventPublisher eventPublisher, TransactionTemplate transactionTemplate,
+                                     JournalCheckpointRepository journalCheckpointRepository,
+                                     @Value("${app.journal.directory:data/journal}") Path journalDirectory) {
+        this.campaignRepository = campaignRepository;
+        this.campaignBulkService = campaignBulkService;
+        this.campaignSnapshotStore = campaignSnapshotStore;
+        this.resourceVersions = resourceVersions;
+        this.campaignOutboxWriter = campaignOutboxWriter;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        // Flips are replayed whole, so the checkpoint only supplies the epoch of this schema.
+        JournalCheckpoint checkpoint = journalCheckpointRepository.findOrStart(JOURNAL);
+        this.journal = new SegmentedJournal(journalDirectory, JOURNAL, checkpoint.getEpoch(), 1);
+        if (journal.discardedSegments() > 0) {
+            log.warn("Discarded {} journal segments of status changes written for another database",
+                    journal.discardedSegments());
+        }
+        this.flips = new JournaledBuffer<>(journal, (newer, failed) -> newer);
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            campaignLocks[i] = new Object();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void replayJournal() {
+        Map<Long, Boolean> latest = new HashMap<>();
+        for (String record : journal.recover()) {
+            int separator = record.indexOf(',');
+            latest.put(Long.parseLong(record.substring(0, separator)), record.endsWith(",1"));
+        }
+        // A flip accepted since startup is newer than anything in the old segments.
+        latest.keySet().removeIf(campaignId -> flips.pending(campaignId) != null);
+        if (latest.isEmpty()) {
+            journal.deleteRecovered();
+            return;
+        }
+        int changed = campaignBulkService.setStatus(idsWithStatus(latest, true), true)
+                + campaignBulkService.setStatus(idsWithStatus(latest, false), false);
+        journal.deleteRecovered();
+        log.info("Replayed {} journaled status changes ({} applied)", latest.size(), changed);
+    }
+
+    /**
+     * @return the campaign with its new status, or empty when the snapshot is not built yet and
+     * the caller has to update synchronously
+     */
+    public Optional<CampaignDTO> updateStatus(String username, long campaignId, boolean status) {
+        synchronized (campaignLocks[Math.floorMod(campaignId, LOCK_STRIPES)]) {
+            CampaignSnapshot snapshot = campaignSnapshotStore.current();
+            if (snapshot == null) {
+                return Optional.empty();
+            }
+            CampaignDTO previous = snapshot.find(campaignId)
+                    .filter(campaign -> campaign.sellerName().equals(username))
+                    .orElseThrow(() -> new NotFoundException("Campaign not found or you are not authorized with id: " + campaignId));
+            CampaignDTO updated = new CampaignDTO(previous.id(), previous.name(), previous.keywordsNames(),
+                    previous.price(), previous.fund(), status, previous.city(), previous.sellerName());
+            if (previous.status() == status) {
+                return Optional.of(updated);
+            }
+
+            flips.append(List.of(campaignId + "," + (status ? 1 : 0)), pending -> pending.put(campaignId, status));
+            eventPublisher.publishEvent(CampaignChangedEvent.statusChanged(previous, updated));
+            return Optional.of(updated);
+        }
+    }
+
+    /**
+     * Status accepted but not yet written to the database, if any.
+     */
+    public Optional<Boolean> pendingStatus(long campaignId) {
+        Boolean status = flips.pending(campaignId);
+        return Optional.ofNullable(status != null ? status : flips.flushing(campaignId));
+    }
+
+    /**
+     * The campaign with its pending status, if a flip has not been written yet.
+     */
+    public CampaignDTO withPendingStatus(CampaignDTO campaign) {
+        return pendingStatus(campaign.id())
+                .filter(status -> status != campaign.status())
+                .map(status -> new CampaignDTO(campaign.id(), campaign.name(), campaign.keywordsNames(),
+                        campaign.price(), campaign.fund(), status, campaign.city(), campaign.sellerName()))
+                .orElse(campaign);
+    }
+
+    /**
+     * For synchronous status writers, with the campaign row locked: if a flip of the campaign is
+     * still pending or being flushed, it is replaced by {@code status} once the writer commits. The
+     * flush that may already be writing the old flip is then followed by one writing {@code status};
+     * a rolled-back writer leaves the old flip in place.
+     */
+    public void supersedePending(long campaignId, boolean status) {
+        if (pendingStatus(campaignId).isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    replacePending(campaignId, status);
+                }
+            });
+        } else {
+            replacePending(campaignId, status);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.status-write-behind.flush-interval:500ms}")
+    public void flush() {
+        try {
+            flips.flush((batch, sealedSegment) -> transactionTemplate.execute(tx -> {
+                write(idsWithStatus(batch, true), true);
+                write(idsWithStatus(batch, false), false);
+                campaignOutboxWriter.writeAll(CampaignChangedEvent.Type.STATUS_CHANGED, flushedCampaigns(batch));
+                return batch.size();
+            })).ifPresent(written -> {
+                // The flips were announced when accepted; list ETags must still change once the rows do.
+                resourceVersions.invalidateAll();
+            });
+        } catch (RuntimeException e) {
+            // Retried with the next flush; the sealed segment stays until then.
+            log.warn("Flushing campaign status changes failed, retrying later", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        flush();
+        flips.close();
+    }
+
+    // Journaled like an accepted flip, so a replay after a crash also ends with the synchronous write.
+    private void replacePending(long campaignId, boolean status) {
+        synchronized (campaignLocks[Math.floorMod(campaignId, LOCK_STRIPES)]) {
+            flips.append(List.of(campaignId + "," + (status ? 1 : 0)), pending -> pending.put(campaignId, status));
+        }
+    }
+
+    private void write(List<Long> campaignIds, boolean status) {
+        for (int from = 0; from < campaignIds.size(); from += CampaignBulkService.CHUNK_SIZE) {
+            campaignRepository.updateStatusByIdIn(
+                    campaignIds.subList(from, Math.min(from + CampaignBulkService.CHUNK_SIZE, campaignIds.size())), status);
+        }
+    }
+
+    // Feed entries of the flushed flips: the snapshot state with the status written; deleted campaigns are skipped.
+    private List<CampaignDTO> flushedCampaigns(Map<Long, Boolean> batch) {
+        CampaignSnapshot snapshot = campaignSnapshotStore.current();
+        List<CampaignDTO> campaigns = new ArrayList<>(batch.size());
+        if (snapshot == null) {
+            return campaigns;
+        }
+        batch.forEach((campaignId, status) -> snapshot.find(campaignId).ifPresent(campaign ->
+                campaigns.add(new CampaignDTO(campaign.id(), campaign.name(), campaign.keywordsNames(), campaign.price(),
+                        campaign.fund(), status, campaign.city(), campaign.sellerName()))));
+        return campaigns;
+    }
+
+    // Sorted, like every other bulk writer, so row locks are always taken in the same order.
+    private static List<Long> idsWithStatus(Map<Long, Boolean> statuses, boolean status) {
+        List<Long> campaignIds = new ArrayList<>();
+        statuses.forEach((campaignId, value) -> {
+            if (value == status) {
+                campaignIds.add(campaignId);
+            }
+        });
+        campaignIds.sort(null);
+        return campaignIds;
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.demo.services;
+
+import com.example.demo.dtos.CityDTO;
+import com.example.demo.entities.City;
+import com.example.demo.events.CityCatalogRefreshedEvent;
+import com.example.demo.repositories.CityRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Immutable, preloaded copy of the {@link City} reference data. Cities are seeded once by
+ * {@code CityInitializer} and practically never change, so lookups by ID or name, the coordinate
+ * arrays and the serialized {@code /cities} body are all computed once per {@link #refresh()}.
+ * The {@link City} instances handed out are detached and must not be modified.
+ */
+@Component
+public class CityCatalog {
+
+    private static final Logger log = LoggerFactory.getLogger(CityCatalog.class);
+
+    private record Snapshot(City[] cities,
+                            Map<Long, Integer> indexById,
+                            Map<String, Integer> indexByName,
+                            long[] ids,
+                            double[] latitudes,
+                            double[] longitudes,
+                            List<CityDTO> dtos,
+                            byte[] json,
+                            String etag) {
+    }
+
+    private final CityRepository cityRepository;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private volatile Snapshot snapshot;
+
+    public CityCatalog(CityRepository cityRepository, ObjectMapper objectMapper,
+                       ApplicationEventPublisher eventPublisher) {
+        this.cityRepository = cityRepository;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Reloads the catalog from the database and notifies dependants. Call after cities were
+     * inserted or changed outside of the application.
+     */
+    public void refresh() {
+        Snapshot loaded = load();
+        eventPublisher.publishEvent(new CityCatalogRefreshedEvent(loaded.cities().length));
+    }
+
+    private synchronized Snapshot load() {
+        List<City> loaded = cityRepository.findAll().stream()
+                .sorted(Comparator.comparing(City::getId))
+                .toList();
+
+        int size = loaded.size();
+        City[] cities = loaded.toArray(new City[0]);
+        Map<Long, Integer> indexById = new HashMap<>();
+        Map<String, Integer> indexByName = new HashMap<>();
+        long[] ids = new long[size];
+        double[] latitudes = new double[size];
+        double[] longitudes = new double[size];
+        for (int i = 0; i < size; i++) {
+            indexById.put(cities[i].getId(), i);
+            indexByName.put(cities[i].getName(), i);
+            ids[i] = cities[i].getId();
+            latitudes[i] = cities[i].getLatitude();
+            longitudes[i] = cities[i].getLongitude();
+        }
+
+        List<CityDTO> dtos = loaded.stream().map(CityDTO::fromEntity).toList();
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(dtos);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize city catalog", e);
+        }
+
+        Snapshot loadedSnapshot = new Snapshot(cities, Map.copyOf(indexById), Map.copyOf(indexByName),
+                ids, latitudes, longitudes, dtos, json, sha256(json));
+        snapshot = loadedSnapshot;
+        log.info("City catalog loaded: {} cities", size);
+        return loadedSnapshot;
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        return current != null ? current : load();
+    }
+
+    public Optional<City> findByName(String name) {
+        Snapshot current = snapshot();
+        Integer index = current.indexByName().get(name);
+        return index != null ? Optional.of(current.cities()[index]) : Optional.empty();
+    }
+
+    public Optional<City> findById(long id) {
+        Snapshot current = snapshot();
+        Integer index = current.indexById().get(id);
+        return index != null ? Optional.of(current.cities()[index]) : Optional.empty();
+    }
+
+    public List<City> cities() {
+        return List.of(snapshot().cities());
+    }
+
+    public List<CityDTO> findAll() {
+        return snapshot().dtos();
+    }
+
+    public int size() {
+        return snapshot().ids().length;
+    }
+
+    /**
+     * Position of the city in the coordinate arrays, or {@code -1} when unknown.
+     */
+    public int indexOf(long cityId) {
+        Integer index = snapshot().indexById().get(cityId);
+        return index != null ? index : -1;
+    }
+
+    public int indexOf(String cityName) {
+        Integer index = snapshot().indexByName().get(cityName);
+        return index != null ? index : -1;
+    }
+
+    public long idAt(int index) {
+        return snapshot().ids()[index];
+    }
+
+    public double latitudeAt(int index) {
+        return snapshot().latitudes()[index];
+    }
+
+    public double longitudeAt(int index) {
+        return snapshot().longitudes()[index];
+    }
+
+    /**
+     * Serialized JSON array of all cities - the exact {@code /cities} response body.
+     */
+    public byte[] jsonBody() {
+        return snapshot().json();
+    }
+
+    public String etag() {
+        return snapshot().etag();
+    }
+
+    private static String sha256(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
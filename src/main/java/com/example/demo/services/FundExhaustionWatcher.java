@@ -0,0 +1,180 @@
+package com.example.demo.services;
+
+import com.example.demo.dtos.CampaignDTO;
+import com.example.demo.events.CampaignChangedEvent;
+import com.example.demo.search.CampaignSnapshot;
+import com.example.demo.search.CampaignSnapshotStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Deactivates active campaigns whose fund no longer covers their price. Every such campaign sits
+ * in a {@link TimingWheel} at its projected exhaustion time: now when it is already short,
+ * otherwise the remaining fund above one charge divided by its recent spend rate (an average over
+ * the billing {@code FUND_CHANGED} events). Campaigns that are not being charged are not scheduled.
+ * <p>
+ * Each tick re-checks the campaigns that came due against the snapshot fund minus the charges not
+ * yet flushed, reschedules those that still can pay and hands the rest to one
+ * {@link CampaignBulkService#deactivateIfExhausted} call, which repeats the check on the locked rows
+ * and whose events update the index, snapshot and search cache. Campaigns short of funds at startup
+ * are found by one pass over the snapshot, with the same check.
+ */
+@Component
+public class FundExhaustionWatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(FundExhaustionWatcher.class);
+    private static final int WHEEL_SIZE = 512;
+    private static final long RETRY_MILLIS = 5_000;
+
+    private final CampaignSnapshotStore campaignSnapshotStore;
+    private final CampaignBillingService campaignBillingService;
+    private final CampaignBulkService campaignBulkService;
+
+    // Guarded by this: events arrive on the writing threads, ticks on the scheduler.
+    private final TimingWheel wheel;
+    private final Map<Long, SpendRate> spendRates = new HashMap<>();
+    private volatile boolean swept;
+
+    public FundExhaustionWatcher(CampaignSnapshotStore campaignSnapshotStore,
+                                 CampaignBillingService campaignBillingService,
+                                 CampaignBulkService campaignBulkService,
+                                 @Value("${app.exhaustion-watcher.tick:250ms}") Duration tick) {
+        this.campaignSnapshotStore = campaignSnapshotStore;
+        this.campaignBillingService = campaignBillingService;
+        this.campaignBulkService = campaignBulkService;
+        this.wheel = new TimingWheel(tick.toMillis(), WHEEL_SIZE, System.currentTimeMillis());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCampaignChanged(CampaignChangedEvent event) {
+        long campaignId = event.campaignId();
+        CampaignDTO current = event.current();
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            if (current == null) {
+                wheel.cancel(campaignId);
+                spendRates.remove(campaignId);
+                return;
+            }
+            SpendRate rate = spendRates.get(campaignId);
+            if (event.type() == CampaignChangedEvent.Type.FUND_CHANGED && event.previous().fund() > current.fund()) {
+                if (rate == null) {
+                    rate = new SpendRate();
+                    spendRates.put(campaignId, rate);
+                }
+                rate.record(event.previous().fund() - current.fund(), now);
+            }
+            if (current.status()) {
+                schedule(campaignId, current.fund(), current.price(), rate, now);
+            } else {
+                wheel.cancel(campaignId);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.exhaustion-watcher.tick:250ms}")
+    public void tick() {
+        CampaignSnapshot snapshot = campaignSnapshotStore.current();
+        if (snapshot == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (!swept) {
+            sweep(snapshot, now);
+        }
+
+        List<Long> due = new ArrayList<>();
+        synchronized (this) {
+            wheel.advance(now, due::add);
+        }
+        if (due.isEmpty()) {
+            return;
+        }
+        List<Long> exhausted = new ArrayList<>();
+        for (long campaignId : due) {
+            int row = snapshot.rowOf(campaignId);
+            if (row < 0 || !snapshot.isActiveAt(row)) {
+                continue;
+            }
+            double fund = snapshot.fundAt(row);
+            if (isExhausted(campaignId, fund, snapshot.priceAt(row))) {
+                exhausted.add(campaignId);
+            } else {
+                synchronized (this) {
+                    schedule(campaignId, fund, snapshot.priceAt(row), spendRates.get(campaignId), now);
+                }
+            }
+        }
+        if (exhausted.isEmpty()) {
+            return;
+        }
+
+        try {
+            int deactivated = campaignBulkService.deactivateIfExhausted(exhausted);
+            log.info("Deactivated {} campaigns with exhausted funds", deactivated);
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                exhausted.forEach(campaignId -> wheel.schedule(campaignId, now + RETRY_MILLIS));
+            }
+            log.warn("Deactivating {} campaigns with exhausted funds failed, retrying later", exhausted.size(), e);
+        }
+    }
+
+    private void sweep(CampaignSnapshot snapshot, long now) {
+        synchronized (this) {
+            for (int row = 0; row < snapshot.size(); row++) {
+                if (snapshot.isActiveAt(row)
+                        && isExhausted(snapshot.idAt(row), snapshot.fundAt(row), snapshot.priceAt(row))) {
+                    wheel.schedule(snapshot.idAt(row), now);
+                }
+            }
+        }
+        swept = true;
+    }
+
+    // Fund is before the charges not yet flushed.
+    private boolean isExhausted(long campaignId, double fund, double price) {
+        return fund - campaignBillingService.unflushed(campaignId) < price;
+    }
+
+    // Expects the lock; fund is before the charges not yet flushed.
+    private void schedule(long campaignId, double fund, double price, SpendRate rate, long now) {
+        double spare = fund - campaignBillingService.unflushed(campaignId) - price;
+        if (spare < 0) {
+            wheel.schedule(campaignId, now);
+        } else if (rate != null && rate.perMilli > 0) {
+            wheel.schedule(campaignId, now + (long) Math.min(spare / rate.perMilli, Long.MAX_VALUE / 2.0));
+        } else {
+            wheel.cancel(campaignId);
+        }
+    }
+
+    /**
+     * Exponentially weighted spend per millisecond between fund changes.
+     */
+    private static final class SpendRate {
+
+        private static final double WEIGHT = 0.5;
+
+        private double perMilli;
+        private long lastMillis;
+
+        void record(double spent, long now) {
+            if (lastMillis > 0 && now > lastMillis) {
+                double current = spent / (now - lastMillis);
+                perMilli = perMilli == 0 ? current : WEIGHT * current + (1 - WEIGHT) * perMilli;
+            }
+            lastMillis = now;
+        }
+    }
+}
@@ -2,6 +2,8 @@ package com.example.demo.services;
 
 import com.example.demo.entities.Keyword;
 import com.example.demo.repositories.KeywordRepository;
+import com.example.demo.search.KeywordSuggestionIndex;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.stereotype.Service;
 
 import java.util.Collection;
@@ -11,23 +13,39 @@ import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
+@Timed("app.service")
 public class KeywordService {
 
+    public static final int DEFAULT_SUGGESTION_LIMIT = 10;
+    public static final int MAX_SUGGESTION_LIMIT = 50;
+
     private final KeywordRepository keywordRepository;
+    private final KeywordSuggestionIndex keywordSuggestionIndex;
 
-    public KeywordService(KeywordRepository keywordRepository) {
+    public KeywordService(KeywordRepository keywordRepository, KeywordSuggestionIndex keywordSuggestionIndex) {
         this.keywordRepository = keywordRepository;
+        this.keywordSuggestionIndex = keywordSuggestionIndex;
     }
 
     public List<String> suggest(String query) {
+        return suggest(query, DEFAULT_SUGGESTION_LIMIT);
+    }
+
+    public List<String> suggest(String query, int limit) {
+        int boundedLimit = Math.max(1, Math.min(limit, MAX_SUGGESTION_LIMIT));
+        if (keywordSuggestionIndex.isReady()) {
+            return keywordSuggestionIndex.suggest(query, boundedLimit);
+        }
+
         if (query == null || query.trim().isEmpty()) {
             return keywordRepository.findAll().stream()
-                    .limit(10)
+                    .limit(boundedLimit)
                     .map(Keyword::getName)
                     .collect(Collectors.toList());
         }
 
         return keywordRepository.findByNameContainingIgnoreCase(query).stream()
+                .limit(boundedLimit)
                 .map(Keyword::getName)
                 .collect(Collectors.toList());
     }
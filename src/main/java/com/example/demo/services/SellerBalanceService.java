@@ -0,0 +1,45 @@
+package com.example.demo.services;
+
+import com.example.demo.repositories.SellerRepository;
+import jakarta.transaction.Transactional;
+import org.springframework.stereotype.Service;
+
+/**
+ * Single place that moves money on {@code Seller.balance}. Every change is one atomic
+ * {@code UPDATE ... SET balance = balance ± ?} statement, so concurrent spends and refunds can
+ * neither lose updates nor overdraw the account, and the seller row is only locked from that
+ * statement until commit instead of for the whole read-modify-write.
+ */
+@Service
+@Transactional
+public class SellerBalanceService {
+
+    private final SellerRepository sellerRepository;
+
+    public SellerBalanceService(SellerRepository sellerRepository) {
+        this.sellerRepository = sellerRepository;
+    }
+
+    /**
+     * @return {@code false} when the seller does not have {@code amount} available
+     */
+    public boolean tryWithdraw(long sellerId, double amount) {
+        if (amount <= 0) {
+            return true;
+        }
+        return sellerRepository.withdraw(sellerId, amount) == 1;
+    }
+
+    public void deposit(long sellerId, double amount) {
+        if (amount > 0) {
+            sellerRepository.deposit(sellerId, amount);
+        }
+    }
+
+    /**
+     * @return {@code false} when no seller with that username exists
+     */
+    public boolean deposit(String username, double amount) {
+        return sellerRepository.depositByUsername(username, amount) == 1;
+    }
+}
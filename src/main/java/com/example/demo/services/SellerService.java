@@ -1,28 +1,50 @@
 package com.example.demo.services;
 
+import com.example.demo.dtos.CampaignDTO;
 import com.example.demo.dtos.CreateSellerDTO;
 import com.example.demo.dtos.SellerDTO;
+import com.example.demo.dtos.SellerSummaryDTO;
 import com.example.demo.entities.Seller;
+import com.example.demo.events.CampaignChangedEvent;
 import com.example.demo.exceptions.BadRequestException;
 import com.example.demo.exceptions.NotFoundException;
 import com.example.demo.repositories.SellerRepository;
+import com.example.demo.repositories.projections.CampaignSellerRef;
+import com.example.demo.security.AuthenticationCache;
+import io.micrometer.core.annotation.Timed;
 import jakarta.transaction.Transactional;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
+@Timed("app.service")
 public class SellerService {
 
     private final SellerRepository sellerRepository;
     private final PasswordEncoder passwordEncoder;
+    private final SellerBalanceService sellerBalanceService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AuthenticationCache authenticationCache;
 
-    public SellerService(SellerRepository sellerRepository, PasswordEncoder passwordEncoder) {
+    public SellerService(SellerRepository sellerRepository, PasswordEncoder passwordEncoder,
+                         SellerBalanceService sellerBalanceService, ApplicationEventPublisher eventPublisher,
+                         AuthenticationCache authenticationCache) {
         this.sellerRepository = sellerRepository;
         this.passwordEncoder = passwordEncoder;
+        this.sellerBalanceService = sellerBalanceService;
+        this.eventPublisher = eventPublisher;
+        this.authenticationCache = authenticationCache;
     }
 
     public SellerDTO findByName(String username) {
@@ -57,6 +79,11 @@ public class SellerService {
                 .collect(Collectors.toList());
     }
 
+    public Page<SellerDTO> findPage(Pageable pageable) {
+        Page<SellerSummaryDTO> sellers = sellerRepository.findSummaries(pageable);
+        return new PageImpl<>(withCampaignNames(sellers.getContent()), pageable, sellers.getTotalElements());
+    }
+
     public SellerDTO getCurrentSellerInfo(String username) {
         return sellerRepository.findByUsername(username)
                 .map(SellerDTO::fromEntity)
@@ -67,14 +94,24 @@ public class SellerService {
     public void deleteById(Long id) {
         Seller seller = sellerRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException("Seller not found with id: " + id));
-        sellerRepository.delete(seller);
+        delete(seller);
     }
 
     @Transactional
     public void deleteByUsername(String username) {
         Seller seller = sellerRepository.findByUsername(username)
                 .orElseThrow(() -> new NotFoundException("Seller not found with username: " + username));
+        delete(seller);
+    }
+
+    private void delete(Seller seller) {
+        // Campaigns go away through orphan removal, so announce them before the seller is removed.
+        List<CampaignDTO> campaigns = seller.getCampaigns().stream()
+                .map(CampaignDTO::fromEntity)
+                .collect(Collectors.toList());
         sellerRepository.delete(seller);
+        authenticationCache.evict(seller.getUsername());
+        campaigns.forEach(campaign -> eventPublisher.publishEvent(CampaignChangedEvent.deleted(campaign)));
     }
     @Transactional
     public SellerDTO register(CreateSellerDTO createSellerDTO) {
@@ -108,12 +145,29 @@ public class SellerService {
     public ResponseEntity<SellerDTO> addFunds(String username, double amount) {
         if (amount <= 0) throw new BadRequestException("Amount must be greater than zero");
 
-        Seller seller = sellerRepository.findByUsername(username)
+        if (!sellerBalanceService.deposit(username, amount)) {
+            throw new NotFoundException("Seller not found with username: " + username);
+        }
+
+        SellerSummaryDTO seller = sellerRepository.findSummaryByUsername(username)
                 .orElseThrow(() -> new NotFoundException("Seller not found with username: " + username));
 
-        seller.setBalance(seller.getBalance() + amount);
-        sellerRepository.save(seller);
+        return ResponseEntity.ok(withCampaignNames(List.of(seller)).get(0));
+    }
 
-        return ResponseEntity.ok(SellerDTO.fromEntity(seller));
+    // Two lean queries in total instead of every seller with all of its campaign entities.
+    private List<SellerDTO> withCampaignNames(List<SellerSummaryDTO> sellers) {
+        if (sellers.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, List<String>> names = new HashMap<>();
+        for (CampaignSellerRef ref : sellerRepository.findCampaignNamesBySellerIdIn(
+                sellers.stream().map(SellerSummaryDTO::id).toList())) {
+            names.computeIfAbsent(ref.sellerId(), id -> new ArrayList<>()).add(ref.campaignName());
+        }
+        return sellers.stream()
+                .map(seller -> new SellerDTO(seller.id(), seller.username(), seller.email(), seller.balance(),
+                        names.getOrDefault(seller.id(), new ArrayList<>())))
+                .toList();
     }
 }
@@ -0,0 +1,84 @@
+package com.example.demo.services;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongConsumer;
+
+/**
+ * Hashed timing wheel of IDs: {@code size} buckets of {@code tickMillis} each, an ID due at tick
+ * {@code t} sits in bucket {@code t mod size} (later revolutions wait there until their tick).
+ * Scheduling is O(1); rescheduling or cancelling only updates the due tick per ID, and the stale
+ * bucket entry is dropped when the wheel passes it. Not thread-safe.
+ */
+final class TimingWheel {
+
+    private record Entry(long id, long tick) {
+    }
+
+    private final long tickMillis;
+    private final int mask;
+    private final List<List<Entry>> buckets;
+    private final Map<Long, Long> dueTicks = new HashMap<>();
+    // Next tick to process; everything before it has been handed out.
+    private long currentTick;
+
+    /**
+     * @param size number of buckets, a power of two
+     */
+    TimingWheel(long tickMillis, int size, long nowMillis) {
+        if (Integer.bitCount(size) != 1) {
+            throw new IllegalArgumentException("Timing wheel size must be a power of two: " + size);
+        }
+        this.tickMillis = tickMillis;
+        this.mask = size - 1;
+        this.buckets = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            buckets.add(new ArrayList<>());
+        }
+        this.currentTick = nowMillis / tickMillis;
+    }
+
+    /**
+     * Schedules (or moves) the ID; a time already passed means the next {@link #advance}.
+     */
+    void schedule(long id, long dueMillis) {
+        long tick = dueMillis / tickMillis;
+        Long previous = dueTicks.put(id, tick);
+        if (previous == null || previous != tick) {
+            // Overdue entries go to the bucket processed first.
+            buckets.get((int) (Math.max(tick, currentTick) & mask)).add(new Entry(id, tick));
+        }
+    }
+
+    void cancel(long id) {
+        dueTicks.remove(id);
+    }
+
+    int size() {
+        return dueTicks.size();
+    }
+
+    /**
+     * Moves the wheel to {@code nowMillis} and passes every ID that became due to {@code action}.
+     */
+    void advance(long nowMillis, LongConsumer action) {
+        long target = nowMillis / tickMillis;
+        // After a long pause every bucket is visited once; the tick check still picks out what is due.
+        // The current bucket is always visited, for overdue entries scheduled since the last call.
+        long last = Math.max(currentTick, Math.min(target, currentTick + mask));
+        for (long tick = currentTick; tick <= last; tick++) {
+            buckets.get((int) (tick & mask)).removeIf(entry -> {
+                if (entry.tick() > target) {
+                    return false;
+                }
+                if (dueTicks.remove(entry.id(), entry.tick())) {
+                    action.accept(entry.id());
+                }
+                return true;
+            });
+        }
+        currentTick = Math.max(currentTick, target + 1);
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.demo.controllers;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class CampaignBillingSecurityTest {
+
+    private static final String EVENTS = "{\"events\": [{\"campaignId\": 1, \"type\": \"CLICK\"}]}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void sellersCannotPostBillingEvents() throws Exception {
+        mockMvc.perform(post("/campaigns/billing/events")
+                        .with(user("billing-seller").roles("FREE_USER"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(EVENTS))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void anonymousRequestsAreRejected() throws Exception {
+        mockMvc.perform(post("/campaigns/billing/events")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(EVENTS))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void adminsCanPostBillingEvents() throws Exception {
+        mockMvc.perform(post("/campaigns/billing/events")
+                        .with(user("billing-admin").roles("ADMIN"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(EVENTS))
+                // 200, or 503 while the snapshot is not built yet; either way past authorization.
+                .andExpect(result -> assertThat(result.getResponse().getStatus()).isNotEqualTo(403));
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.demo.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JournaledBufferTest {
+
+    private static final String NAME = "charges";
+
+    @TempDir
+    Path directory;
+
+    // Stands in for the database: the flushed charges and the checkpoint committed with them.
+    private final Map<Long, Double> database = new HashMap<>();
+    private long checkpoint;
+
+    @Test
+    void aFailedWriteIsRequeuedTogetherWithNewerValues() throws IOException {
+        JournaledBuffer<Double> buffer = new JournaledBuffer<>(new SegmentedJournal(directory, NAME), Double::sum);
+        charge(buffer, 1, 2.0);
+        charge(buffer, 2, 3.0);
+
+        assertThatThrownBy(() -> buffer.flush((batch, sealedSegment) -> {
+            charge(buffer, 1, 0.5);
+            assertThat(buffer.flushing(1)).isEqualTo(2.0);
+            throw new IllegalStateException("database down");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(buffer.pending(1)).isEqualTo(2.5);
+        assertThat(buffer.pending(2)).isEqualTo(3.0);
+        assertThat(buffer.flushing(1)).isNull();
+
+        assertThat(buffer.flush(this::commit)).isEqualTo(Optional.of(2));
+        assertThat(database).containsEntry(1L, 2.5).containsEntry(2L, 3.0);
+        assertThat(buffer.pending(1)).isNull();
+        buffer.close();
+        // Both sealed segments, also the one of the failed flush, are gone.
+        assertThat(new SegmentedJournal(directory, NAME).recover()).isEmpty();
+    }
+
+    @Test
+    void nothingPendingMeansNoWrite() {
+        JournaledBuffer<Double> buffer = new JournaledBuffer<>(new SegmentedJournal(directory, NAME), Double::sum);
+
+        assertThat(buffer.flush((batch, sealedSegment) -> {
+            throw new AssertionError("no write expected");
+        })).isEqualTo(Optional.empty());
+    }
+
+    @Test
+    void committedValuesAreNotRequeuedWhenTheirSegmentsCannotBeDeleted() throws IOException {
+        JournaledBuffer<Double> buffer = new JournaledBuffer<>(new UndeletableJournal(directory), Double::sum);
+        charge(buffer, 1, 2.0);
+
+        assertThat(buffer.flush(this::commit)).isEqualTo(Optional.of(1));
+        charge(buffer, 1, 1.0);
+
+        assertThat(buffer.pending(1)).isEqualTo(1.0);
+        buffer.close();
+        assertThat(database).containsEntry(1L, 2.0);
+    }
+
+    @Test
+    void replayAfterTheCheckpointDoesNotApplyFlushedChargesTwice() throws IOException {
+        // Crash right after the commit: the flushed segment is still on disk.
+        JournaledBuffer<Double> buffer = new JournaledBuffer<>(new UndeletableJournal(directory), Double::sum);
+        charge(buffer, 1, 2.0);
+        buffer.flush(this::commit);
+        charge(buffer, 1, 1.0);
+        buffer.close();
+
+        SegmentedJournal restarted = new SegmentedJournal(directory, NAME, checkpoint + 1);
+
+        assertThat(restarted.recover()).containsExactly("1,2.0", "1,1.0");
+        assertThat(restarted.recoverAfter(checkpoint)).containsExactly("1,1.0");
+        restarted.deleteUpTo(checkpoint);
+        restarted.close();
+        assertThat(new SegmentedJournal(directory, NAME).recover()).containsExactly("1,1.0");
+    }
+
+    private static void charge(JournaledBuffer<Double> buffer, long campaignId, double amount) {
+        buffer.append(List.of(campaignId + "," + amount), pending -> pending.merge(campaignId, amount, Double::sum));
+    }
+
+    private int commit(Map<Long, Double> batch, long sealedSegment) {
+        batch.forEach((campaignId, amount) -> database.merge(campaignId, amount, Double::sum));
+        checkpoint = sealedSegment;
+        return batch.size();
+    }
+
+    private static final class UndeletableJournal extends SegmentedJournal {
+
+        UndeletableJournal(Path directory) {
+            super(directory, NAME);
+        }
+
+        @Override
+        public synchronized void deleteUpTo(long segment) {
+            throw new UncheckedIOException(new IOException("read-only file system"));
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.demo.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SegmentedJournalTest {
+
+    private static final String NAME = "test";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void recoverReturnsTheRecordsOfThePreviousRunOldestFirst() throws IOException {
+        SegmentedJournal previous = new SegmentedJournal(directory, NAME);
+        previous.append("a");
+        previous.rotate();
+        previous.append(List.of("b", "c"));
+        previous.close();
+
+        SegmentedJournal journal = new SegmentedJournal(directory, NAME);
+        journal.append("d");
+
+        assertThat(journal.recover()).containsExactly("a", "b", "c");
+        journal.deleteRecovered();
+        journal.close();
+        // The active segment of the second run is not one of the recovered ones.
+        assertThat(new SegmentedJournal(directory, NAME).recover()).containsExactly("d");
+    }
+
+    @Test
+    void recoverAfterSkipsSegmentsUpToTheCheckpoint() throws IOException {
+        SegmentedJournal previous = new SegmentedJournal(directory, NAME);
+        previous.append("a");
+        long checkpoint = previous.rotate();
+        previous.append("b");
+        previous.rotate();
+        previous.append("c");
+        previous.close();
+
+        SegmentedJournal journal = new SegmentedJournal(directory, NAME, checkpoint + 1);
+
+        assertThat(journal.recoverAfter(checkpoint)).containsExactly("b", "c");
+        journal.deleteUpTo(checkpoint);
+        journal.close();
+        // The active segment is numbered past the checkpoint, so nothing of it is skipped next time.
+        SegmentedJournal restarted = new SegmentedJournal(directory, NAME, checkpoint + 1);
+        assertThat(restarted.recoverAfter(checkpoint)).containsExactly("b", "c");
+        assertThat(restarted.recover()).containsExactly("b", "c");
+    }
+
+    @Test
+    void numberingNeverRestartsBelowTheFirstSegment() {
+        SegmentedJournal journal = new SegmentedJournal(directory, NAME, 42);
+
+        assertThat(journal.rotate()).isEqualTo(42L);
+        assertThat(journal.rotate()).isEqualTo(43L);
+    }
+
+    @Test
+    void aTornLastRecordIsIgnored() throws IOException {
+        SegmentedJournal previous = new SegmentedJournal(directory, NAME);
+        previous.append(List.of("a", "b"));
+        previous.close();
+        Files.writeString(segmentFiles().get(0), "c-without-newline", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        assertThat(new SegmentedJournal(directory, NAME).recover()).containsExactly("a", "b");
+    }
+
+    @Test
+    void deleteUpToKeepsTheActiveSegment() throws IOException {
+        SegmentedJournal journal = new SegmentedJournal(directory, NAME);
+        journal.append("a");
+        journal.rotate();
+        journal.append("b");
+
+        journal.deleteUpTo(Long.MAX_VALUE);
+        journal.close();
+
+        assertThat(new SegmentedJournal(directory, NAME).recover()).containsExactly("b");
+    }
+
+    @Test
+    void segmentsOfAnotherEpochAreDiscarded() throws IOException {
+        SegmentedJournal previous = new SegmentedJournal(directory, NAME, "schema-1", 1);
+        previous.append("a");
+        previous.rotate();
+        previous.append("b");
+        previous.close();
+
+        SegmentedJournal sameSchema = new SegmentedJournal(directory, NAME, "schema-1", 1);
+        assertThat(sameSchema.discardedSegments()).isEqualTo(0);
+        assertThat(sameSchema.recover()).containsExactly("a", "b");
+        sameSchema.close();
+
+        SegmentedJournal recreated = new SegmentedJournal(directory, NAME, "schema-2", 1);
+        assertThat(recreated.discardedSegments()).isEqualTo(3);
+        assertThat(recreated.recover()).isEmpty();
+        recreated.append("c");
+        recreated.close();
+        assertThat(new SegmentedJournal(directory, NAME, "schema-2", 1).recover()).containsExactly("c");
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().startsWith(NAME + "-")).sorted().toList();
+        }
+    }
+}
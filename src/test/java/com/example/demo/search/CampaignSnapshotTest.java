@@ -0,0 +1,53 @@
+package com.example.demo.search;
+
+import com.example.demo.dtos.CampaignDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CampaignSnapshotTest {
+
+    private static CampaignDTO campaign(long id, double fund, boolean status, String city, Set<String> keywords) {
+        return new CampaignDTO(id, "Campaign " + id, keywords, 1.5, fund, status, city, "seller");
+    }
+
+    private static CampaignSnapshot snapshot() {
+        return CampaignSnapshot.builder(1)
+                .add(campaign(1, 10, true, "Kraków", Set.of("shoes")))
+                .add(campaign(3, 20, true, "Warszawa", Set.of("bikes", "tools")))
+                .build();
+    }
+
+    @Test
+    void fundAndStatusChangesArePatchedIntoTheSameGeneration() {
+        CampaignSnapshot snapshot = snapshot();
+        TreeMap<Long, CampaignDTO> changes = new TreeMap<>();
+        changes.put(3L, campaign(3, 4.5, false, "Warszawa", Set.of("tools", "bikes")));
+
+        assertThat(snapshot.patch(changes)).isSameAs(snapshot);
+        assertThat(snapshot.find(3)).contains(campaign(3, 4.5, false, "Warszawa", Set.of("bikes", "tools")));
+        assertThat(snapshot.find(1)).contains(campaign(1, 10, true, "Kraków", Set.of("shoes")));
+    }
+
+    @Test
+    void insertsDeletesAndMovesBuildANewGeneration() {
+        CampaignSnapshot snapshot = snapshot();
+        TreeMap<Long, CampaignDTO> changes = new TreeMap<>();
+        changes.put(1L, campaign(1, 10, true, "Gdańsk", Set.of("shoes")));
+        changes.put(2L, campaign(2, 7, true, "Kraków", Set.of("hats")));
+        changes.put(3L, null);
+
+        CampaignSnapshot patched = snapshot.patch(changes);
+
+        assertThat(patched).isNotSameAs(snapshot);
+        assertThat(patched.size()).isEqualTo(2);
+        assertThat(patched.find(1)).contains(campaign(1, 10, true, "Gdańsk", Set.of("shoes")));
+        assertThat(patched.find(2)).contains(campaign(2, 7, true, "Kraków", Set.of("hats")));
+        assertThat(patched.find(3)).isEmpty();
+        assertThat(snapshot.find(1)).contains(campaign(1, 10, true, "Kraków", Set.of("shoes")));
+        assertThat(snapshot.size()).isEqualTo(2);
+    }
+}
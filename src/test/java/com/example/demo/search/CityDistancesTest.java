@@ -0,0 +1,107 @@
+package com.example.demo.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class CityDistancesTest {
+
+    private static final int CITIES = 300;
+    // Cities this close to the radius may fall on either side of it (float distances); not compared.
+    private static final double BOUNDARY_KM = 0.01;
+
+    private final long[] ids = new long[CITIES];
+    private final double[] latitudes = new double[CITIES];
+    private final double[] longitudes = new double[CITIES];
+
+    CityDistancesTest() {
+        Random random = new Random(42);
+        for (int i = 0; i < CITIES; i++) {
+            ids[i] = 1000 + i * 7L;
+            latitudes[i] = 49 + random.nextDouble() * 6;
+            longitudes[i] = 14 + random.nextDouble() * 10;
+        }
+    }
+
+    @Test
+    void radiusQueriesMatchGeoMath() {
+        CityDistances distances = CityDistances.build(ids, latitudes, longitudes, CITIES, CITIES);
+
+        assertThat(distances.neighborsPerCity()).isEqualTo(CITIES);
+        assertMatchesGeoMath(distances, 0, 50, 120, 400, 2000);
+    }
+
+    @Test
+    void truncatedNeighborListsFallBackToScanningAllCities() {
+        CityDistances withMatrix = CityDistances.build(ids, latitudes, longitudes, 8, CITIES);
+        CityDistances withoutMatrix = CityDistances.build(ids, latitudes, longitudes, 8, 0);
+
+        assertThat(withMatrix.neighborsPerCity()).isEqualTo(8);
+        assertThat(withMatrix.hasMatrix()).isTrue();
+        assertThat(withoutMatrix.hasMatrix()).isFalse();
+        // 8 neighbors of 300 cities spread over Poland reach a few tens of km; larger radii scan.
+        assertMatchesGeoMath(withMatrix, 0, 10, 50, 120, 400, 2000);
+        assertMatchesGeoMath(withoutMatrix, 0, 10, 50, 120, 400, 2000);
+    }
+
+    @Test
+    void matrixDistancesAreWithinItsResolution() {
+        CityDistances withMatrix = CityDistances.build(ids, latitudes, longitudes, 16, CITIES);
+        CityDistances withoutMatrix = CityDistances.build(ids, latitudes, longitudes, 16, 0);
+
+        for (int i = 0; i < CITIES; i += 7) {
+            for (int j = 0; j < CITIES; j += 5) {
+                double exact = GeoMath.distanceKm(latitudes[i], longitudes[i], latitudes[j], longitudes[j]);
+                assertThat(withMatrix.distanceKm(ids[i], ids[j]))
+                        .isCloseTo(exact, within(CityDistances.RESOLUTION_KM / 2 + 1e-6));
+                assertThat(withoutMatrix.distanceKm(ids[i], ids[j])).isCloseTo(exact, within(1e-6));
+            }
+        }
+    }
+
+    @Test
+    void unknownCitiesAreReported() {
+        CityDistances distances = CityDistances.build(ids, latitudes, longitudes, 8, CITIES);
+
+        assertThat(distances.forEachWithin(-1, 100, (cityId, distanceKm) -> {
+        })).isFalse();
+        assertThat(distances.distanceKm(-1, ids[0])).isNaN();
+    }
+
+    private void assertMatchesGeoMath(CityDistances distances, double... radii) {
+        for (int i = 0; i < CITIES; i += 3) {
+            for (double radius : radii) {
+                int center = i;
+                Map<Long, Double> found = new HashMap<>();
+                assertThat(distances.forEachWithin(ids[center], radius, (cityId, distanceKm) -> {
+                    assertThat(found.put(cityId, distanceKm)).isNull();
+                })).isTrue();
+
+                Set<Long> expected = new HashSet<>();
+                Set<Long> boundary = new HashSet<>();
+                for (int j = 0; j < CITIES; j++) {
+                    double exact = GeoMath.distanceKm(latitudes[center], longitudes[center], latitudes[j], longitudes[j]);
+                    if (Math.abs(exact - radius) < BOUNDARY_KM) {
+                        boundary.add(ids[j]);
+                    } else if (exact <= radius) {
+                        expected.add(ids[j]);
+                    }
+                    Double reported = found.get(ids[j]);
+                    if (reported != null) {
+                        assertThat(reported).isCloseTo(exact, within(1e-3));
+                    }
+                }
+                Set<Long> actual = new HashSet<>(found.keySet());
+                actual.removeAll(boundary);
+                assertThat(actual).as("city %d, radius %s km", ids[center], radius).isEqualTo(expected);
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.demo.services;
+
+import com.example.demo.dtos.CreateCampaignDTO;
+import com.example.demo.entities.Seller;
+import com.example.demo.repositories.SellerRepository;
+import com.example.demo.search.ActiveCampaignIndex;
+import com.example.demo.search.CampaignSnapshotStore;
+import com.example.demo.search.SearchResultCache;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.reset;
+
+@SpringBootTest
+class CampaignServiceQueryCountTest {
+
+    private static final String USERNAME = "query-count-seller";
+    private static final String CITY = "Warszawa";
+
+    @Autowired
+    private CampaignService campaignService;
+
+    @Autowired
+    private SellerService sellerService;
+
+    @Autowired
+    private SellerRepository sellerRepository;
+
+    @Autowired
+    private SearchResultCache searchResultCache;
+
+    @MockitoSpyBean
+    private ActiveCampaignIndex activeCampaignIndex;
+
+    @MockitoSpyBean
+    private CampaignSnapshotStore campaignSnapshotStore;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        Seller seller = new Seller();
+        seller.setUsername(USERNAME);
+        seller.setEmail(USERNAME + "@example.com");
+        seller.setPassword("secret");
+        seller.setBalance(1_000_000.0);
+        sellerRepository.save(seller);
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    // Through the service, so the index, snapshot and search cache drop the campaigns as well.
+    @AfterEach
+    void tearDown() {
+        if (sellerService.existsByName(USERNAME)) {
+            sellerService.deleteByUsername(USERNAME);
+        }
+    }
+
+    @Test
+    void listReadsRunTheSameNumberOfStatementsRegardlessOfSize() {
+        createCampaigns(2);
+        long[] small = countStatementsForAllListReads();
+
+        createCampaigns(40);
+        long[] large = countStatementsForAllListReads();
+
+        assertThat(large).containsExactly(small);
+    }
+
+    private long[] countStatementsForAllListReads() {
+        long[] fromIndexes = countStatementsForListReads();
+        // The database path the searches take while the index and snapshot are not built yet.
+        doReturn(false).when(activeCampaignIndex).isReady();
+        doReturn(null).when(campaignSnapshotStore).current();
+        try {
+            return LongStream.concat(Arrays.stream(fromIndexes), Arrays.stream(countStatementsForListReads())).toArray();
+        } finally {
+            reset(activeCampaignIndex, campaignSnapshotStore);
+        }
+    }
+
+    private long[] countStatementsForListReads() {
+        // Searches are answered from the result cache when it has the entry; measure the load path.
+        searchResultCache.invalidateAll();
+        return new long[]{
+                countStatements(() -> campaignService.findAll()),
+                countStatements(() -> campaignService.findAllByUsername(USERNAME)),
+                countStatements(() -> campaignService.findByCity(CITY)),
+                countStatements(() -> campaignService.findActiveCampaignsNearSearchLocation(CITY, 100)),
+                countStatements(() -> campaignService.findActiveCampaignsNearSearchLocationByKeywords(
+                        CITY, 100, List.of("elektronika", "moda")))
+        };
+    }
+
+    private long countStatements(Runnable read) {
+        statistics.clear();
+        read.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void createCampaigns(int count) {
+        for (int i = 0; i < count; i++) {
+            campaignService.createCampaign(USERNAME, new CreateCampaignDTO(
+                    "query-count-" + UUID.randomUUID(),
+                    List.of("elektronika", "moda", "sport"),
+                    1.0,
+                    10.0,
+                    true,
+                    CITY
+            ));
+        }
+    }
+}
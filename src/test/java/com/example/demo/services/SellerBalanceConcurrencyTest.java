@@ -0,0 +1,168 @@
+package com.example.demo.services;
+
+import com.example.demo.dtos.BillingEventDTO;
+import com.example.demo.dtos.BillingResultDTO;
+import com.example.demo.dtos.CampaignDTO;
+import com.example.demo.dtos.CreateCampaignDTO;
+import com.example.demo.entities.Seller;
+import com.example.demo.repositories.CampaignRepository;
+import com.example.demo.repositories.SellerRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class SellerBalanceConcurrencyTest {
+
+    private static final String USERNAME = "balance-stress-seller";
+    private static final double INITIAL_BALANCE = 10_000.0;
+    private static final int THREADS = 8;
+    private static final int OPERATIONS_PER_THREAD = 40;
+
+    @Autowired
+    private CampaignService campaignService;
+
+    @Autowired
+    private SellerService sellerService;
+
+    @Autowired
+    private SellerRepository sellerRepository;
+
+    @Autowired
+    private CampaignRepository campaignRepository;
+
+    @Autowired
+    private CampaignBillingService campaignBillingService;
+
+    private final Map<Long, String> campaignNames = new ConcurrentHashMap<>();
+    private final AtomicLong deposited = new AtomicLong();
+    private final AtomicLong succeeded = new AtomicLong();
+
+    @BeforeEach
+    void setUp() {
+        Seller seller = new Seller();
+        seller.setUsername(USERNAME);
+        seller.setEmail(USERNAME + "@example.com");
+        seller.setPassword("secret");
+        seller.setBalance(INITIAL_BALANCE);
+        sellerRepository.save(seller);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (sellerService.existsByName(USERNAME)) {
+            sellerService.deleteByUsername(USERNAME);
+        }
+    }
+
+    @Test
+    void concurrentSpendsAndRefundsConserveMoney() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            workers.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                    runRandomOperation();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get(2, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        double balance = sellerRepository.findByUsername(USERNAME).orElseThrow().getBalance();
+        double funds = campaignRepository.findAllBySeller_Username(USERNAME).stream()
+                .mapToDouble(campaign -> campaign.getFund())
+                .sum();
+
+        assertThat(succeeded.get()).isPositive();
+        assertThat(balance).isGreaterThanOrEqualTo(0.0);
+        assertThat(balance + funds).isEqualTo(INITIAL_BALANCE + deposited.get());
+    }
+
+    @Test
+    void loweringTheFundDoesNotRefundUnflushedCharges() {
+        String name = "pending-charges-" + UUID.randomUUID();
+        CampaignDTO created = campaignService.createCampaign(USERNAME,
+                new CreateCampaignDTO(name, List.of("elektronika"), 5.0, 100.0, true, "Warszawa"));
+        BillingEventDTO click = new BillingEventDTO(created.id(), BillingEventDTO.Type.CLICK);
+        BillingResultDTO billed = campaignBillingService.ingest(List.of(click, click, click, click));
+        assertThat(billed.charged()).isEqualTo(20.0);
+
+        campaignService.updateCampaign(USERNAME, created.id(),
+                new CreateCampaignDTO(name, List.of("elektronika"), 5.0, 0.0, true, "Warszawa"));
+        campaignBillingService.flush();
+
+        double balance = sellerRepository.findByUsername(USERNAME).orElseThrow().getBalance();
+        double fund = campaignRepository.findById(created.id()).orElseThrow().getFund();
+        assertThat(fund).isEqualTo(0.0);
+        // Creating the campaign also took its price from the balance.
+        assertThat(balance).isEqualTo(INITIAL_BALANCE - 5.0 - billed.charged());
+    }
+
+    private void runRandomOperation() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        try {
+            switch (random.nextInt(4)) {
+                case 0 -> {
+                    String name = "stress-" + UUID.randomUUID();
+                    CampaignDTO created = campaignService.createCampaign(USERNAME, campaign(name, 10 * (1 + random.nextInt(5))));
+                    campaignNames.put(created.id(), name);
+                }
+                case 1 -> {
+                    Long id = anyCampaignId();
+                    if (id != null) {
+                        campaignService.updateCampaign(USERNAME, id, campaign(campaignNames.get(id), 10 * random.nextInt(6)));
+                    }
+                }
+                case 2 -> {
+                    Long id = anyCampaignId();
+                    if (id != null) {
+                        campaignService.deleteCampaign(USERNAME, id);
+                        campaignNames.remove(id);
+                    }
+                }
+                default -> {
+                    long amount = 1 + random.nextInt(20);
+                    sellerService.addFunds(USERNAME, amount);
+                    deposited.addAndGet(amount);
+                }
+            }
+            succeeded.incrementAndGet();
+        } catch (RuntimeException expected) {
+            // Insufficient balance, a campaign deleted by another thread or a lock timeout:
+            // the transaction rolled back, which must not break the invariant.
+        }
+    }
+
+    private Long anyCampaignId() {
+        List<Long> ids = new ArrayList<>(campaignNames.keySet());
+        return ids.isEmpty() ? null : ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+
+    private static CreateCampaignDTO campaign(String name, double fund) {
+        return new CreateCampaignDTO(name, List.of("elektronika"), 0.0, fund, true, "Warszawa");
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.demo.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TimingWheelTest {
+
+    // 8 buckets of 10 ms: one revolution is 80 ms.
+    private final TimingWheel wheel = new TimingWheel(10, 8, 1_000);
+
+    @Test
+    void handsOutIdsWhenTheirTickIsReached() {
+        wheel.schedule(1, 1_015);
+        wheel.schedule(2, 1_030);
+
+        assertThat(advance(1_009)).isEmpty();
+        assertThat(advance(1_019)).containsExactly(1L);
+        assertThat(advance(1_029)).isEmpty();
+        assertThat(advance(1_030)).containsExactly(2L);
+        assertThat(wheel.size()).isEqualTo(0);
+    }
+
+    @Test
+    void overdueIdsAreHandedOutOnTheNextAdvance() {
+        advance(1_100);
+        wheel.schedule(1, 900);
+        wheel.schedule(2, 1_100);
+
+        assertThat(advance(1_100)).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(advance(1_200)).isEmpty();
+    }
+
+    @Test
+    void rescheduledAndCancelledIdsLeaveNoStaleEntriesBehind() {
+        wheel.schedule(1, 1_020);
+        wheel.schedule(1, 1_050);
+        wheel.schedule(2, 1_020);
+        wheel.cancel(2);
+        wheel.schedule(3, 1_020);
+        wheel.schedule(3, 1_040);
+        wheel.schedule(3, 1_020);
+
+        assertThat(wheel.size()).isEqualTo(2);
+        assertThat(advance(1_029)).containsExactly(3L);
+        assertThat(advance(1_049)).isEmpty();
+        assertThat(advance(1_059)).containsExactly(1L);
+        // Each ID once, although both had entries in several buckets.
+        assertThat(advance(1_500)).isEmpty();
+        assertThat(wheel.size()).isEqualTo(0);
+    }
+
+    @Test
+    void laterRevolutionsWaitInTheirBucket() {
+        // Same bucket as 1_020, two and five revolutions later.
+        wheel.schedule(1, 1_020 + 2 * 80);
+        wheel.schedule(2, 1_020 + 5 * 80);
+        wheel.schedule(3, 1_020);
+
+        assertThat(advance(1_079)).containsExactly(3L);
+        assertThat(advance(1_179)).isEmpty();
+        assertThat(advance(1_189)).containsExactly(1L);
+        assertThat(wheel.size()).isEqualTo(1);
+    }
+
+    @Test
+    void advancingSeveralRevolutionsAtOnceHandsOutEverythingDue() {
+        List<Long> due = new ArrayList<>();
+        for (long id = 1; id <= 40; id++) {
+            wheel.schedule(id, 1_000 + id * 25);
+            if (1_000 + id * 25 <= 1_700) {
+                due.add(id);
+            }
+        }
+
+        assertThat(advance(1_700)).containsExactlyInAnyOrderElementsOf(due);
+        assertThat(wheel.size()).isEqualTo(40 - due.size());
+        assertThat(advance(2_000)).hasSize(40 - due.size());
+    }
+
+    @Test
+    void sizeMustBeAPowerOfTwo() {
+        assertThatThrownBy(() -> new TimingWheel(10, 6, 0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("power of two");
+    }
+
+    private List<Long> advance(long nowMillis) {
+        List<Long> handedOut = new ArrayList<>();
+        wheel.advance(nowMillis, handedOut::add);
+        return handedOut;
+    }
+}
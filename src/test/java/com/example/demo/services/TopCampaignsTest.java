@@ -0,0 +1,84 @@
+package com.example.demo.services;
+
+import com.example.demo.services.CampaignSelectionService.TopCampaigns;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TopCampaignsTest {
+
+    private record Candidate(long key, double distanceKm, double score) {
+    }
+
+    // Best first: higher score, then smaller key.
+    private static final Comparator<Candidate> BEST_FIRST = Comparator.comparingDouble(Candidate::score).reversed()
+            .thenComparingLong(Candidate::key);
+
+    @Test
+    void keepsTheSameCampaignsAsSortingAllCandidates() {
+        Random random = new Random(11);
+        for (int capacity : new int[]{1, 2, 3, 10, 100}) {
+            for (int count : new int[]{0, 1, capacity - 1, capacity, capacity + 1, 1_000}) {
+                List<Long> keys = new ArrayList<>();
+                for (long key = 1; key <= count; key++) {
+                    keys.add(key);
+                }
+                Collections.shuffle(keys, random);
+                List<Candidate> candidates = new ArrayList<>();
+                for (long key : keys) {
+                    // Few distinct scores, so ties are frequent.
+                    candidates.add(new Candidate(key, random.nextDouble() * 100, random.nextInt(20) / 4.0));
+                }
+
+                assertThat(drain(capacity, candidates))
+                        .as("capacity %d, %d candidates", capacity, count)
+                        .containsExactlyElementsOf(bruteForce(capacity, candidates));
+            }
+        }
+    }
+
+    @Test
+    void equalScoresPreferSmallerKeys() {
+        List<Candidate> candidates = List.of(
+                new Candidate(7, 1, 2.0), new Candidate(3, 2, 2.0), new Candidate(9, 3, 5.0),
+                new Candidate(5, 4, 2.0), new Candidate(1, 5, 1.0));
+
+        assertThat(drain(3, candidates)).containsExactly(
+                new Candidate(9, 3, 5.0), new Candidate(3, 2, 2.0), new Candidate(5, 4, 2.0));
+    }
+
+    @Test
+    void drainingEmptiesTheHeapForReuse() {
+        TopCampaigns top = new TopCampaigns(2);
+        top.offer(1, 0, 1.0);
+        top.offer(2, 0, 2.0);
+        top.drainBestFirst((key, distanceKm, score) -> {
+        });
+
+        assertThat(top.size()).isEqualTo(0);
+        top.offer(3, 0, 0.5);
+        List<Candidate> drained = new ArrayList<>();
+        top.drainBestFirst((key, distanceKm, score) -> drained.add(new Candidate(key, distanceKm, score)));
+        assertThat(drained).containsExactly(new Candidate(3, 0, 0.5));
+    }
+
+    private static List<Candidate> drain(int capacity, List<Candidate> candidates) {
+        TopCampaigns top = new TopCampaigns(capacity);
+        candidates.forEach(candidate -> top.offer(candidate.key(), candidate.distanceKm(), candidate.score()));
+        assertThat(top.size()).isEqualTo(Math.min(capacity, candidates.size()));
+
+        List<Candidate> drained = new ArrayList<>();
+        top.drainBestFirst((key, distanceKm, score) -> drained.add(new Candidate(key, distanceKm, score)));
+        return drained;
+    }
+
+    private static List<Candidate> bruteForce(int capacity, List<Candidate> candidates) {
+        return candidates.stream().sorted(BEST_FIRST).limit(capacity).toList();
+    }
+}